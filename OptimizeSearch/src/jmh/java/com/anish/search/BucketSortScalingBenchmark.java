@@ -0,0 +1,55 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@code BucketSortScalingBenchmark} checks that sorting the words into frequency buckets
+ * scales linearly with the number of distinct words, from 10 thousand up to 10 million. The counts
+ * follow a Zipf distribution capped so the most frequent count equals the number of words, the
+ * largest count the bucket path is used for. Linear scaling shows as a constant time per word,
+ * i.e. the reported time divided by distinctWords stays flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BucketSortScalingBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int distinctWords;
+
+    private WordCounter wordFrequency;
+    private int maxFreq;
+
+    @Setup
+    public void setup() {
+        wordFrequency = new WordCounter(distinctWords);
+        for (int rank = 0; rank < distinctWords; rank++) {
+            wordFrequency.add("w" + Integer.toString(rank, Character.MAX_RADIX), Math.max(1, distinctWords / (rank + 1)));
+        }
+
+        maxFreq = wordFrequency.maxCount();
+    }
+
+    @Benchmark
+    public FrequencyBuckets bucketSortFrequency() {
+        return FrequentWordSearcher.bucketSortFrequency(wordFrequency, maxFreq);
+    }
+}
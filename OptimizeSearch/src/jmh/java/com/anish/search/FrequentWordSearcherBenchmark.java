@@ -0,0 +1,158 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@code FrequentWordSearcherBenchmark} measures a whole search, from the text to the
+ * list of most frequent words, on Zipfian corpora. Strings are measured up to 100MB, larger
+ * corpora only fit in memory as files so they are measured through the memory mapped file mode.
+ * Run with {@code -prof gc} to see the allocation rate next to the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FrequentWordSearcherBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TextState {
+        @Param({"1", "100"})
+        public int megabytes;
+
+        @Param({"10", "1000"})
+        public int numberOfFrequentWords;
+
+        @Param({"false", "true"})
+        public boolean stemming;
+
+        String text;
+        FrequentWordSearcher searcher;
+
+        @Setup
+        public void setup() {
+            text = new ZipfianCorpus().text(megabytes << 20);
+            searcher = FrequentWordSearcher.builder().language(stemming ? "english" : null).build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CountingModeState extends TextState {
+        @Param({"EXACT", "SPACE_SAVING", "COUNT_MIN_SKETCH"})
+        public CountingMode countingMode;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BatchState {
+        @Param({"10000"})
+        public int documents;
+
+        @Param({"200"})
+        public int documentLength;
+
+        @Param({"10"})
+        public int numberOfFrequentWords;
+
+        List<String> batch;
+        FrequentWordSearcher searcher;
+
+        @Setup
+        public void setup() {
+            String text = new ZipfianCorpus().text(documents * documentLength);
+            batch = new ArrayList<String>(documents);
+            for (int start = 0; start < text.length(); ) {
+                // Split at a space so no word is cut
+                int end = text.indexOf(' ', Math.min(start + documentLength, text.length()));
+                if (end < 0) {
+                    end = text.length();
+                }
+
+                batch.add(text.substring(start, end));
+                start = end + 1;
+            }
+            searcher = FrequentWordSearcher.builder().build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+        @Param({"1", "100", "1024"})
+        public int megabytes;
+
+        @Param({"10", "1000"})
+        public int numberOfFrequentWords;
+
+        @Param({"false", "true"})
+        public boolean stemming;
+
+        Path path;
+        FrequentWordSearcher searcher;
+
+        @Setup
+        public void setup() throws IOException {
+            path = new ZipfianCorpus().file((long) megabytes << 20);
+            searcher = FrequentWordSearcher.builder().language(stemming ? "english" : null).build();
+        }
+    }
+
+    @Benchmark
+    public List<String> text(TextState state) {
+        return state.searcher.findMostFrequentWords(state.text, state.numberOfFrequentWords);
+    }
+
+    @Benchmark
+    public List<String> textInParallel(TextState state) {
+        return state.searcher.findMostFrequentWords(state.text, state.numberOfFrequentWords,
+                ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public TopKResult textCountingMode(CountingModeState state) {
+        return state.searcher.findTopK(state.text, state.numberOfFrequentWords, state.countingMode);
+    }
+
+    @Benchmark
+    public BatchTopKResult batch(BatchState state) {
+        return state.searcher.findTopK(state.batch, state.numberOfFrequentWords);
+    }
+
+    @Benchmark
+    public List<TopKResult> documentByDocument(BatchState state) {
+        List<TopKResult> results = new ArrayList<TopKResult>(state.batch.size());
+        for (String document : state.batch) {
+            results.add(state.searcher.findTopK(document, state.numberOfFrequentWords));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<String> mappedFile(FileState state) throws IOException {
+        return state.searcher.findMostFrequentWords(state.path, state.numberOfFrequentWords);
+    }
+
+    @Benchmark
+    public List<String> mappedFileInParallel(FileState state) throws IOException {
+        return state.searcher.findMostFrequentWords(state.path, state.numberOfFrequentWords,
+                ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@code PhaseBenchmark} measures each phase of a search on its own: tokenizing,
+ * counting, sorting into buckets and taking the top k words out of the buckets or out of a heap.
+ * Every phase after the first runs on the output of the earlier phases prepared in the setup.
+ * Corpora of 1GB and more are written to a file and tokenized and counted from the memory mapped
+ * file, like {@link FrequentWordSearcherBenchmark}, since they do not fit in a string.
+ * Each benchmark only takes the parameters it depends on, the corpus size, the stemmer for
+ * counting and k and the tie break for the selection, so no phase is run again for parameters it
+ * ignores. Run with {@code -prof gc} to see the allocation rate next to the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PhaseBenchmark {
+
+    /** Smallest corpus which is read from a memory mapped file instead of a string */
+    private static final int MAPPED_MEGABYTES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class CorpusState {
+        @Param({"1", "100", "1024"})
+        public int megabytes;
+
+        String text;
+        Path path;
+
+        @Setup
+        public void setupCorpus() throws IOException {
+            if (megabytes >= MAPPED_MEGABYTES) {
+                path = new ZipfianCorpus().file((long) megabytes << 20);
+            } else {
+                text = new ZipfianCorpus().text(megabytes << 20);
+            }
+        }
+
+        int countWords(FrequentWordSearcher searcher, WordCounter counter) throws IOException {
+            return path == null ? searcher.extractWordFrequency(counter, text)
+                    : searcher.extractWordFrequency(counter, path, Integer.MAX_VALUE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CountState extends CorpusState {
+        @Param({"false", "true"})
+        public boolean stemming;
+
+        FrequentWordSearcher searcher;
+
+        @Setup
+        public void setupSearcher() {
+            searcher = FrequentWordSearcher.builder().language(stemming ? "english" : null).build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BucketState extends CorpusState {
+        WordCounter wordFrequency;
+        int maxFreq;
+        FrequencyBuckets freqBucket;
+
+        @Setup
+        public void setupCounts() throws IOException {
+            wordFrequency = new WordCounter();
+            maxFreq = countWords(FrequentWordSearcher.builder().build(), wordFrequency);
+            freqBucket = FrequentWordSearcher.bucketSortFrequency(wordFrequency, maxFreq);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SelectionState extends BucketState {
+        @Param({"10", "1000"})
+        public int numberOfFrequentWords;
+
+        @Param({"FIRST_OCCURRENCE", "LEXICOGRAPHIC"})
+        public TieBreak tieBreak;
+    }
+
+    @Benchmark
+    public int tokenize(CorpusState state) throws IOException {
+        TokenLengthSink sink = new TokenLengthSink();
+        WordTokenizer tokenizer = new WordTokenizer(sink);
+        if (state.path == null) {
+            tokenizer.tokenize(state.text);
+            return sink.total;
+        }
+
+        try (FileChannel channel = FileChannel.open(state.path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                tokenizer.feed(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        tokenizer.finish();
+        return sink.total;
+    }
+
+    @Benchmark
+    public int extractWordFrequency(CountState state) throws IOException {
+        return state.countWords(state.searcher, new WordCounter());
+    }
+
+    @Benchmark
+    public FrequencyBuckets bucketSortFrequency(BucketState state) {
+        return FrequentWordSearcher.bucketSortFrequency(state.wordFrequency, state.maxFreq);
+    }
+
+    @Benchmark
+    public FrequencyBuckets sparseBucketSortFrequency(BucketState state) {
+        return FrequencyBuckets.sortSparse(state.wordFrequency);
+    }
+
+    @Benchmark
+    public TopKResult bucketTopK(SelectionState state) {
+        return FrequentWordSearcher.getMostFrequentWords(state.freqBucket, state.wordFrequency,
+                state.numberOfFrequentWords, state.tieBreak);
+    }
+
+    @Benchmark
+    public TopKResult heapTopK(SelectionState state) {
+        return FrequentWordSearcher.heapSelectFrequentWords(state.wordFrequency, state.numberOfFrequentWords,
+                state.tieBreak);
+    }
+
+    /**
+     * Adds up the token lengths so the tokenizer cannot be optimized away
+     */
+    private static final class TokenLengthSink implements TokenSink {
+        int total;
+
+        @Override
+        public void onToken(char[] buffer, int length) {
+            total += length;
+        }
+    }
+}
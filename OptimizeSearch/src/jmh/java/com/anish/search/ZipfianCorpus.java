@@ -0,0 +1,139 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The class {@code ZipfianCorpus} generates the text the benchmarks run against. The words are
+ * drawn from a fixed vocabulary with Zipf distributed frequencies, like natural language, where
+ * the word of rank r is seen about 1 / r^s times as often as the most frequent word. Some words
+ * get an English suffix so the stemmer has work to do, and punctuation and upper case letters are
+ * mixed in so the tokenizer does as well.
+ *
+ * <p>The same size and seed always give the same text, so results can be compared across runs.
+ * Large corpora are written once to the temporary directory and reused by later runs.
+ */
+final class ZipfianCorpus {
+    /** Number of distinct words before stemming */
+    static final int VOCABULARY_SIZE = 200000;
+
+    /** Exponent of the Zipf distribution, close to the one measured on English text */
+    private static final double EXPONENT = 1.07;
+
+    private static final long SEED = 20160214L;
+
+    private static final String[] SUFFIXES = {"", "", "", "s", "ing", "ed", "ly"};
+
+    private final String[] vocabulary = new String[VOCABULARY_SIZE];
+
+    /** Cumulative probability of the words, indexed by rank */
+    private final double[] cumulative = new double[VOCABULARY_SIZE];
+
+    ZipfianCorpus() {
+        Random random = new Random(SEED);
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            vocabulary[rank] = word(rank, random);
+            total += 1 / Math.pow(rank + 1, EXPONENT);
+            cumulative[rank] = total;
+        }
+
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /**
+     * This method generates a text of about the given number of characters
+     *
+     * @param size, the number of characters
+     * @return the text
+     */
+    String text(int size) {
+        StringBuilder builder = new StringBuilder(size + 32);
+        Random random = new Random(SEED + size);
+        while (builder.length() < size) {
+            appendWord(builder, random);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * This method generates a file of about the given number of bytes, or returns the one
+     * generated by an earlier run
+     *
+     * @param size, the number of bytes
+     * @return the path of the file
+     * @throws IOException, if the file cannot be written
+     */
+    Path file(long size) throws IOException {
+        Path path = Paths.get(System.getProperty("java.io.tmpdir"), "zipfian-" + SEED + "-" + size + ".txt");
+        if (Files.exists(path) && Files.size(path) >= size) {
+            return path;
+        }
+
+        Path partial = Files.createTempFile(path.getParent(), "zipfian", ".part");
+        Random random = new Random(SEED + size);
+        StringBuilder builder = new StringBuilder(1 << 16);
+        long written = 0;
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(partial, StandardCharsets.UTF_8))) {
+            while (written < size) {
+                builder.setLength(0);
+                while (builder.length() < 1 << 15) {
+                    appendWord(builder, random);
+                }
+
+                writer.append(builder);
+                written += builder.length();
+            }
+        }
+
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+        return path;
+    }
+
+    private void appendWord(StringBuilder builder, Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = Math.min(-rank - 1, VOCABULARY_SIZE - 1);
+        }
+
+        String word = vocabulary[rank];
+        int shape = random.nextInt(64);
+        if (shape == 0) {
+            builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        } else {
+            builder.append(word);
+        }
+
+        builder.append(shape == 1 ? ", " : shape == 2 ? ".\n" : " ");
+    }
+
+    private static String word(int rank, Random random) {
+        StringBuilder builder = new StringBuilder();
+        int value = rank;
+        do {
+            builder.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+
+        // Short words are the frequent ones, pad the rare ones to a natural length
+        while (builder.length() < 3 + random.nextInt(6)) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+
+        return builder.append(SUFFIXES[random.nextInt(SUFFIXES.length)]).toString();
+    }
+}
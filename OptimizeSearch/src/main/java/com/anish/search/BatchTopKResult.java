@@ -0,0 +1,84 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class {@code BatchTopKResult} holds the most frequent words of every document of a batch,
+ * in the order the documents were given, together with the most frequent words of the whole
+ * batch. Each result is the same as the one of searching the document on its own, see
+ * {@link FrequentWordSearcher#findTopK(java.util.Collection, int)}. An instance is immutable.
+ */
+public final class BatchTopKResult {
+    /** The result of each document, indexed by the position of the document in the batch */
+    private final TopKResult[] documents;
+
+    /** The result of all documents together */
+    private final TopKResult corpus;
+
+    /**
+     * @param documents, the result of each document. Owned by the result from now on
+     * @param corpus,    the result of all documents together
+     */
+    BatchTopKResult(TopKResult[] documents, TopKResult corpus) {
+        this.documents = documents;
+        this.corpus = corpus;
+    }
+
+    /**
+     * @return the number of documents in the batch
+     */
+    public int size() {
+        return documents.length;
+    }
+
+    /**
+     * @param index, the position of the document in the batch
+     * @return the most frequent words of the document
+     */
+    public TopKResult document(int index) {
+        return documents[index];
+    }
+
+    /**
+     * @return an unmodifiable list of the result of each document, in the order of the batch
+     */
+    public List<TopKResult> documents() {
+        return Collections.unmodifiableList(Arrays.asList(documents));
+    }
+
+    /**
+     * @return the most frequent words of all documents together
+     */
+    public TopKResult corpus() {
+        return corpus;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof BatchTopKResult)) {
+            return false;
+        }
+
+        BatchTopKResult other = (BatchTopKResult) obj;
+        return corpus.equals(other.corpus) && Arrays.equals(documents, other.documents);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(documents) + corpus.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return documents.length + " documents, corpus " + corpus;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code BoundedWordTable} maps words to ids below a fixed capacity, for the sketches
+ * which keep a fixed number of words and replace one word by another as they count. The ids are
+ * chosen by the caller, usually the index of the counter or candidate holding the word.
+ *
+ * <p>The table is an open addressing hash table like the one of {@link WordCounter}, and words
+ * are looked up by the characters in the tokenizer buffer. A removed word is not marked deleted
+ * but the words after it in the same run of slots are shifted back, so replacing words never
+ * fills the table up and a lookup never passes more slots than when the words were added. The
+ * table starts small and grows with the largest id put into it, up to its capacity, so a table
+ * whose capacity comes from the number of words asked for only takes the memory of the words it
+ * holds. The hash of a word is given by the caller, who must always give the same hash for the
+ * same word. An instance is not thread safe.
+ */
+final class BoundedWordTable {
+    /** Marks an empty slot in the table */
+    private static final int EMPTY = -1;
+
+    /** Number of ids the table has room for at first */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Slots of the hash table holding the id of the word, or EMPTY */
+    private int[] table;
+
+    /** The words, indexed by id */
+    private String[] words;
+
+    /** The hash of each word, indexed by id */
+    private int[] hashes;
+
+    /** The number of ids */
+    private final int capacity;
+
+    /**
+     * @param capacity, the number of ids, between 1 and 2^28
+     */
+    BoundedWordTable(int capacity) {
+        this.capacity = capacity;
+        this.words = new String[Math.min(capacity, INITIAL_CAPACITY)];
+        this.hashes = new int[words.length];
+        this.table = newTable(words.length);
+    }
+
+    /**
+     * This method looks up the word held in the buffer
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     * @param hash,   the hash of the word
+     *
+     * @return the id of the word, negative if it is not in the table
+     */
+    int find(char[] chars, int offset, int length, int hash) {
+        int mask = table.length - 1;
+        for (int slot = WordCounter.spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY || (hashes[id] == hash && WordCounter.matches(words[id], chars, offset, length))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * This method looks up the word
+     *
+     * @param word, the word
+     * @param hash, the hash of the word
+     *
+     * @return the id of the word, negative if it is not in the table
+     */
+    int find(String word, int hash) {
+        int mask = table.length - 1;
+        for (int slot = WordCounter.spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY || (hashes[id] == hash && words[id].equals(word))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * This method adds the word under the given id, which must not hold a word
+     *
+     * @param id,   the id of the word
+     * @param word, the word, not in the table
+     * @param hash, the hash of the word
+     */
+    void put(int id, String word, int hash) {
+        if (id >= words.length) {
+            grow(id + 1);
+        }
+
+        int mask = table.length - 1;
+        int slot = WordCounter.spread(hash) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+
+        words[id] = word;
+        hashes[id] = hash;
+        table[slot] = id;
+    }
+
+    /**
+     * This method removes the word with the given id, moving every word after it in the same
+     * run of slots back if its lookup would otherwise pass the emptied slot
+     *
+     * @param id, the id of a word in the table
+     */
+    void remove(int id) {
+        int mask = table.length - 1;
+        int hole = WordCounter.spread(hashes[id]) & mask;
+        while (table[hole] != id) {
+            hole = (hole + 1) & mask;
+        }
+
+        for (int slot = (hole + 1) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = WordCounter.spread(hashes[table[slot]]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+
+        table[hole] = EMPTY;
+        words[id] = null;
+    }
+
+    /**
+     * @param id, the id of the word
+     * @return the word with the given id, null if the id holds no word
+     */
+    String word(int id) {
+        return words[id];
+    }
+
+    /**
+     * @return the number of ids
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * This method makes room for the given number of ids, doubling the arrays up to the
+     * capacity, and puts the words back into a larger table
+     */
+    private void grow(int minLength) {
+        int length = (int) Math.min(capacity, Math.max(minLength, (long) words.length << 1));
+        String[] oldWords = words;
+        words = Arrays.copyOf(words, length);
+        hashes = Arrays.copyOf(hashes, length);
+        table = newTable(length);
+
+        int mask = table.length - 1;
+        for (int id = 0; id < oldWords.length; id++) {
+            if (oldWords[id] != null) {
+                int slot = WordCounter.spread(hashes[id]) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+
+                table[slot] = id;
+            }
+        }
+    }
+
+    /**
+     * @return an empty table for the given number of ids, with a load factor of at most one half
+     */
+    private static int[] newTable(int length) {
+        int[] table = new int[Integer.highestOneBit(length) << 2];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
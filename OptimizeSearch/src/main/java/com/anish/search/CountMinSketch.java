@@ -0,0 +1,338 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code CountMinSketch} estimates the count of every word in a fixed number of
+ * counters, see {@link CountingMode#COUNT_MIN_SKETCH}. The counters are laid out in depth rows of
+ * width counters each, and every word is hashed to one counter per row. The estimate of a word is
+ * the smallest of its counters, which is never below its true count. Words are counted with the
+ * conservative update of Estan and Varghese: only the counters below the new estimate are raised
+ * to it, which leaves the other counters lower and the estimates of the other words closer to
+ * their true counts.
+ *
+ * <p>Unlike {@link SpaceSavingSketch} the sketch can estimate the count of any word, not only the
+ * words it keeps. The k most frequent words are kept as candidates in a min heap ordered by their
+ * estimate, and a word whose estimate passes the smallest candidate replaces it. The candidates
+ * are looked up by the characters in the tokenizer buffer in a {@link BoundedWordTable}. The
+ * candidates take memory as they are added, so a search asking for more words than it counts
+ * only holds the words it counted.
+ *
+ * <p>The words are hashed once into 64 bits by FNV-1a over their characters, finished by the
+ * mixing step of MurmurHash3, and the counter of each row is derived from the two halves of the
+ * hash. The memory of the counters is allocated up front and stays the same however many words
+ * are counted. An instance is not thread safe.
+ */
+final class CountMinSketch implements FrequencySketch, WordCounts {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** The counters, one row after the other */
+    private final long[] rows;
+
+    /** Number of rows */
+    private final int depth;
+
+    /** Number of counters in a row minus one, the width is always a power of two */
+    private final int mask;
+
+    /** The candidate words, indexed by candidate */
+    private final BoundedWordTable candidates;
+
+    /** The estimate of each candidate when it was last counted, indexed by candidate */
+    private long[] estimates;
+
+    /** Min heap of the candidates ordered by their estimate */
+    private int[] heap;
+
+    /** The index of each candidate in the heap, indexed by candidate */
+    private int[] position;
+
+    /** Number of candidates */
+    private int size = 0;
+
+    /** Number of words counted */
+    private long total = 0;
+
+    /**
+     * @param width,      the number of counters in a row, rounded up to a power of two
+     * @param depth,      the number of rows
+     * @param candidates, the number of most frequent words kept, at most 2^28
+     *
+     * @throws IllegalArgumentException, if width or depth is less than 1 or there are more than
+     *                                   2^30 counters once the width is rounded up
+     */
+    CountMinSketch(int width, int depth, int candidates) {
+        int roundedWidth = checkSize(width, depth);
+        this.rows = new long[roundedWidth * depth];
+        this.depth = depth;
+        this.mask = roundedWidth - 1;
+
+        this.candidates = new BoundedWordTable(Math.max(1, Math.min(candidates, 1 << 28)));
+        this.estimates = new long[0];
+        this.heap = new int[0];
+        this.position = new int[0];
+    }
+
+    /**
+     * This method checks the size of a sketch before any memory is allocated for it
+     *
+     * @param width, the number of counters in a row
+     * @param depth, the number of rows
+     *
+     * @throws IllegalArgumentException, if width or depth is less than 1 or there are more than
+     *                                   2^30 counters once the width is rounded up
+     * @return the width rounded up to a power of two
+     */
+    static int checkSize(int width, int depth) {
+        if (width <= 0 || depth <= 0 || width > 1 << 30) {
+            throw new IllegalArgumentException("Count-Min sketch needs between 1 and 2^30 counters");
+        }
+
+        int roundedWidth = Integer.highestOneBit(width);
+        if (roundedWidth < width) {
+            roundedWidth <<= 1;
+        }
+
+        if ((long) roundedWidth * depth > 1 << 30) {
+            throw new IllegalArgumentException("Count-Min sketch needs between 1 and 2^30 counters");
+        }
+
+        return roundedWidth;
+    }
+
+    @Override
+    public void offer(char[] chars, int offset, int length) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = (hash ^ chars[i]) * FNV_PRIME;
+        }
+        hash = mix(hash);
+
+        long estimate = add(hash);
+        int id = candidates.find(chars, offset, length, (int) hash);
+        if (id >= 0) {
+            raise(id, estimate);
+        } else if (admits(estimate)) {
+            admit(new String(chars, offset, length), (int) hash, estimate);
+        }
+    }
+
+    @Override
+    public void offer(String word) {
+        long hash = hash(word);
+        long estimate = add(hash);
+        int id = candidates.find(word, (int) hash);
+        if (id >= 0) {
+            raise(id, estimate);
+        } else if (admits(estimate)) {
+            admit(word, (int) hash, estimate);
+        }
+    }
+
+    /**
+     * This method estimates the count of any word, whether it is a candidate or not
+     *
+     * @param word, the word
+     * @return the estimated count, never below the true count
+     */
+    long estimate(String word) {
+        return estimate(hash(word));
+    }
+
+    @Override
+    public TopKResult topK(int numberOfFrequentWords, TieBreak tieBreak) {
+        int[] ids = new int[0];
+        if (numberOfFrequentWords > 0 && size > 0) {
+            // Other words may have raised the counters of a candidate since it was last counted
+            for (int id = 0; id < size; id++) {
+                estimates[id] = estimate(hash(candidates.word(id)));
+            }
+            for (int index = (size >>> 1) - 1; index >= 0; index--) {
+                siftDown(index);
+            }
+
+            ids = FrequentWordSearcher.heapSelect(this, heap, size, numberOfFrequentWords, tieBreak);
+        }
+
+        long errorBound = errorBound();
+        String[] topWords = new String[ids.length];
+        long[] topCounts = new long[ids.length];
+        long[] topErrors = new long[ids.length];
+        for (int rank = 0; rank < ids.length; rank++) {
+            topWords[rank] = candidates.word(ids[rank]);
+            topCounts[rank] = estimates[ids[rank]];
+            topErrors[rank] = Math.min(errorBound, topCounts[rank]);
+        }
+
+        // The sketch does not know how many distinct words it counted, only its candidates
+        return new TopKResult(topWords, topCounts, total, size, topErrors, errorBound);
+    }
+
+    /**
+     * This method returns the most an estimate is above the true count with probability
+     * 1 - e^-depth, which is e N / width for N words counted.
+     *
+     * @return the probable largest error of any estimate
+     */
+    long errorBound() {
+        return (long) Math.ceil(Math.E * total / (mask + 1));
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    long total() {
+        return total;
+    }
+
+    @Override
+    public String word(int id) {
+        return candidates.word(id);
+    }
+
+    @Override
+    public int count(int id) {
+        return (int) Math.min(estimates[id], Integer.MAX_VALUE);
+    }
+
+    /**
+     * This method counts the word with the given hash once, raising only the counters below its
+     * new estimate
+     *
+     * @return the new estimate of the word
+     */
+    private long add(long hash) {
+        total++;
+        long estimate = estimate(hash) + 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0, start = 0; row < depth; row++, start += mask + 1) {
+            int counter = start + ((h1 + row * h2) & mask);
+            if (rows[counter] < estimate) {
+                rows[counter] = estimate;
+            }
+        }
+
+        return estimate;
+    }
+
+    /**
+     * @return the smallest counter of the word with the given hash
+     */
+    private long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0, start = 0; row < depth; row++, start += mask + 1) {
+            estimate = Math.min(estimate, rows[start + ((h1 + row * h2) & mask)]);
+        }
+
+        return estimate;
+    }
+
+    /**
+     * @return true, if a word with the estimate which is not a candidate becomes one
+     */
+    private boolean admits(long estimate) {
+        return size < candidates.capacity() || estimate > estimates[heap[0]];
+    }
+
+    /**
+     * This method makes the word a candidate, taking a free candidate or replacing the one with
+     * the smallest estimate
+     */
+    private void admit(String word, int hash, long estimate) {
+        int id;
+        if (size < candidates.capacity()) {
+            if (size == heap.length) {
+                int length = (int) Math.min(candidates.capacity(), Math.max(16L, (long) size << 1));
+                estimates = Arrays.copyOf(estimates, length);
+                heap = Arrays.copyOf(heap, length);
+                position = Arrays.copyOf(position, length);
+            }
+
+            id = size++;
+            heap[id] = id;
+            position[id] = id;
+        } else {
+            id = heap[0];
+            candidates.remove(id);
+        }
+
+        candidates.put(id, word, hash);
+        estimates[id] = estimate;
+        siftUp(position[id]);
+        siftDown(position[id]);
+    }
+
+    /**
+     * This method raises the estimate of the candidate, which can only move it down the heap
+     */
+    private void raise(int id, long estimate) {
+        estimates[id] = estimate;
+        siftDown(position[id]);
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (estimates[heap[parent]] <= estimates[id]) {
+                break;
+            }
+
+            move(heap[parent], index);
+            index = parent;
+        }
+        move(id, index);
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            if (child + 1 < size && estimates[heap[child + 1]] < estimates[heap[child]]) {
+                child++;
+            }
+
+            if (estimates[id] <= estimates[heap[child]]) {
+                break;
+            }
+
+            move(heap[child], index);
+            index = child;
+        }
+        move(id, index);
+    }
+
+    private void move(int id, int index) {
+        heap[index] = id;
+        position[id] = index;
+    }
+
+    private static long hash(String word) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * The finalization step of MurmurHash3, which spreads every bit of the FNV hash over all 64
+     * bits so both halves can pick a counter
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The enum {@code CountingMode} decides how a {@link FrequentWordSearcher} counts the words of a
+ * search. The exact mode keeps a count for every distinct word, so its memory grows with the
+ * vocabulary. The approximate modes keep a fixed number of counters, so the memory stays the
+ * same however many distinct words the text has, and the result tells how far each count can be
+ * off, see {@link TopKResult#error(int)} and {@link TopKResult#errorBound()}.
+ */
+public enum CountingMode {
+
+    /**
+     * Every distinct word is counted exactly
+     */
+    EXACT,
+
+    /**
+     * The words are counted with the Space-Saving algorithm in a fixed number of counters m,
+     * see {@link FrequentWordSearcher.Builder#spaceSavingCounters(int)}. A word without a counter
+     * takes over the counter with the smallest count c and starts counting from c + 1, recording
+     * c as its error. Every count is therefore at most its error above the true count and never
+     * below it, and no error is larger than N / m for N words counted. Every word seen more than
+     * N / m times is sure to have a counter. Words with the same estimated count are ordered by
+     * their counter, unless the tie break is {@link TieBreak#LEXICOGRAPHIC}.
+     */
+    SPACE_SAVING,
+
+    /**
+     * The words are counted in a Count-Min sketch of depth rows of width counters, see
+     * {@link FrequentWordSearcher.Builder#countMinSketch(int, int)}, with conservative update.
+     * The k words with the largest estimates are kept as candidates. Every estimate is at least
+     * the true count, and with probability 1 - e^-depth at most e N / width above it for N words
+     * counted. Unlike {@link #SPACE_SAVING} the sketch estimates every word, so a word seen early
+     * and evicted from the candidates keeps its count when it comes back. Words with the same
+     * estimate are ordered by their candidate slot, unless the tie break is
+     * {@link TieBreak#LEXICOGRAPHIC}.
+     */
+    COUNT_MIN_SKETCH
+}
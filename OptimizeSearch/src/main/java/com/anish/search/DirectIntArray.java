@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * The class {@code DirectIntArray} is an int array outside of the Java heap, made of direct
+ * buffers of at most {@link #CHUNK_SIZE} ints each. It can hold more than the 2^31 bytes a single
+ * buffer is limited to, and the garbage collector never has to look at its contents, only at the
+ * few buffer objects. The memory is given back when the array is collected.
+ *
+ * <p>An array smaller than a chunk is held in a single buffer of its own size, so small arrays
+ * stay small. An instance is not thread safe.
+ */
+final class DirectIntArray {
+    /** Number of bits of an index within a chunk */
+    private static final int CHUNK_SHIFT = 22;
+
+    /** Number of ints in a full chunk, 16MB */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private IntBuffer[] chunks;
+
+    /** Number of ints the array holds */
+    private long length;
+
+    /**
+     * @param length, the number of ints, all 0
+     */
+    DirectIntArray(long length) {
+        this.chunks = new IntBuffer[0];
+        grow(length);
+    }
+
+    /**
+     * @param index, the index of the int
+     * @return the int at the given index
+     */
+    int get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) index & CHUNK_MASK);
+    }
+
+    /**
+     * @param index, the index of the int
+     * @param value, the new value of the int
+     */
+    void set(long index, int value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) index & CHUNK_MASK, value);
+    }
+
+    /**
+     * This method sets every int of the array to the given value
+     *
+     * @param value, the new value of every int
+     */
+    void fill(int value) {
+        for (IntBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i++) {
+                chunk.put(i, value);
+            }
+        }
+    }
+
+    /**
+     * @return the number of ints the array holds
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * This method makes the array hold at least the given number of ints, keeping its contents.
+     * The new ints are 0. A single small buffer doubles until it is a full chunk, after that
+     * whole chunks are added.
+     *
+     * @param minLength, the smallest number of ints the array has to hold
+     */
+    void grow(long minLength) {
+        if (minLength <= length) {
+            return;
+        }
+
+        if (minLength <= CHUNK_SIZE) {
+            int size = (int) Math.min(CHUNK_SIZE, Math.max(minLength, length << 1));
+            IntBuffer chunk = allocate(size);
+            if (chunks.length > 0) {
+                IntBuffer old = chunks[0].duplicate();
+                old.clear();
+                chunk.put(old);
+                chunk.clear();
+            }
+
+            chunks = new IntBuffer[] {chunk};
+            length = size;
+            return;
+        }
+
+        // Fill up the first chunk, then add full chunks
+        grow(CHUNK_SIZE);
+        int count = (int) ((minLength + CHUNK_MASK) >>> CHUNK_SHIFT);
+        IntBuffer[] larger = new IntBuffer[count];
+        System.arraycopy(chunks, 0, larger, 0, chunks.length);
+        for (int i = chunks.length; i < count; i++) {
+            larger[i] = allocate(CHUNK_SIZE);
+        }
+
+        chunks = larger;
+        length = (long) count << CHUNK_SHIFT;
+    }
+
+    private static IntBuffer allocate(int size) {
+        return ByteBuffer.allocateDirect(size << 2).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
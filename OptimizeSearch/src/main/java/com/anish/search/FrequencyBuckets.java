@@ -0,0 +1,333 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code FrequencyBuckets} holds the counted words sorted into buckets by frequency,
+ * as built by a counting sort. It replaces the {@code List<List<String>>} which needed an
+ * {@code ArrayList} for every frequency seen and a pointer chase for every word.
+ *
+ * <p>All words are kept in a single array of word ids, ordered by frequency with the least
+ * frequent words first. A second array holds the offset where each bucket starts in it, found
+ * by a prefix sum over the number of words in each bucket. Within a bucket the ids are in
+ * descending order, so walking the ids from the end gives the most frequent words first and
+ * words with the same frequency in the order they were first seen. Taking the top k words is
+ * then a reverse scan over the last k ids.
+ *
+ * <p>The buckets come in two layouts. {@link #sort(Vocabulary, int)} has a bucket for every
+ * frequency up to the largest, which is the fastest when the largest count is not much more
+ * than the number of words. {@link #sortSparse(Vocabulary)} only has a bucket for every
+ * frequency that occurs, found by radix sorting the distinct counts, so a handful of words seen
+ * hundreds of millions of times cost a handful of buckets rather than hundreds of millions.
+ *
+ * <p>Words with a count of 0, i.e. stop words that were counted and then dropped, are kept in
+ * the bucket of frequency 0 and never returned by {@link #size()} or the scans from the end.
+ */
+final class FrequencyBuckets {
+    /** Number of bits of the count sorted by each pass of the radix sort */
+    private static final int RADIX_BITS = 8;
+
+    /** Index in ids of the first word in each bucket, with one extra offset at the end
+     *  holding the number of ids */
+    private final int[] offsets;
+
+    /** The word ids, ordered by frequency */
+    private final int[] ids;
+
+    /** The frequency of each bucket in ascending order, or null if the bucket of every
+     *  frequency is the frequency itself */
+    private final int[] frequencies;
+
+    /**
+     * @param offsets,     index of the first word of each bucket, followed by the number of ids
+     * @param ids,         the word ids, ordered by frequency
+     * @param frequencies, the frequency of each bucket, or null if every frequency has a bucket
+     */
+    private FrequencyBuckets(int[] offsets, int[] ids, int[] frequencies) {
+        this.offsets = offsets;
+        this.ids = ids;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * This method sorts the words of the counter into a bucket for every frequency from 0 to
+     * maxFreq. It makes two passes over the counts, one to size the buckets and one to place
+     * the ids, and allocates nothing but the two arrays.
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param maxFreq,       Count of the most frequently seen word in the counter
+     *
+     * @return the words sorted into buckets
+     */
+    static FrequencyBuckets sort(Vocabulary wordFrequency, int maxFreq) {
+        int[] offsets = new int[maxFreq + 2];
+        for (int id = 0; id < wordFrequency.size(); id++) {
+            offsets[wordFrequency.count(id)]++;
+        }
+
+        return new FrequencyBuckets(offsets, place(wordFrequency, offsets, null), null);
+    }
+
+    /**
+     * This method sorts the words of the counter into a bucket for every frequency that occurs.
+     * The distinct counts are collected in a small hash table and radix sorted, so the memory
+     * used besides the word ids is proportional to the number of distinct counts and not to
+     * the largest count.
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     *
+     * @return the words sorted into buckets
+     */
+    static FrequencyBuckets sortSparse(Vocabulary wordFrequency) {
+        CountTable buckets = new CountTable();
+        for (int id = 0; id < wordFrequency.size(); id++) {
+            buckets.increment(wordFrequency.count(id));
+        }
+
+        int[] frequencies = buckets.keys();
+        radixSort(frequencies);
+
+        // Replace the number of words of each frequency by its bucket
+        int[] offsets = new int[frequencies.length + 1];
+        for (int bucket = 0; bucket < frequencies.length; bucket++) {
+            offsets[bucket] = buckets.replace(frequencies[bucket], bucket);
+        }
+
+        return new FrequencyBuckets(offsets, place(wordFrequency, offsets, buckets), frequencies);
+    }
+
+    /**
+     * This method turns the number of words in each bucket into offsets with a prefix sum and
+     * fills every bucket from its end, leaving offsets[b] at the start of bucket b
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param offsets,       the number of words in each bucket, with one extra slot at the end
+     * @param buckets,       the bucket of each count, or null if the bucket is the count
+     *
+     * @return the word ids, ordered by frequency
+     */
+    private static int[] place(Vocabulary wordFrequency, int[] offsets, CountTable buckets) {
+        int end = 0;
+        for (int bucket = 0; bucket < offsets.length - 1; bucket++) {
+            end += offsets[bucket];
+            offsets[bucket] = end;
+        }
+        offsets[offsets.length - 1] = end;
+
+        int[] ids = new int[end];
+        for (int id = 0; id < wordFrequency.size(); id++) {
+            int count = wordFrequency.count(id);
+            ids[--offsets[buckets == null ? count : buckets.get(count)]] = id;
+        }
+
+        return ids;
+    }
+
+    /**
+     * This method sorts the non negative values in ascending order with a least significant
+     * digit radix sort, skipping the digits above the largest value
+     *
+     * @param values, the values to sort
+     */
+    static void radixSort(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+
+        int[] buffer = new int[values.length];
+        int[] from = values;
+        int[] to = buffer;
+        int[] digits = new int[1 << RADIX_BITS];
+        int mask = digits.length - 1;
+        for (int shift = 0; shift < Integer.SIZE && max >>> shift != 0; shift += RADIX_BITS) {
+            Arrays.fill(digits, 0);
+            for (int value : from) {
+                digits[(value >>> shift) & mask]++;
+            }
+
+            int start = 0;
+            for (int digit = 0; digit < digits.length; digit++) {
+                int digitCount = digits[digit];
+                digits[digit] = start;
+                start += digitCount;
+            }
+
+            for (int value : from) {
+                to[digits[(value >>> shift) & mask]++] = value;
+            }
+
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        if (from != values) {
+            System.arraycopy(from, 0, values, 0, values.length);
+        }
+    }
+
+    /**
+     * @return the frequency of the last bucket
+     */
+    int maxFreq() {
+        if (frequencies == null) {
+            return offsets.length - 2;
+        }
+
+        return frequencies.length == 0 ? 0 : frequencies[frequencies.length - 1];
+    }
+
+    /**
+     * @return the number of words with a count of at least 1
+     */
+    int size() {
+        return ids.length - bucketSize(0);
+    }
+
+    /**
+     * @param frequency, the frequency of the bucket
+     * @return the number of words seen exactly frequency times
+     */
+    int bucketSize(int frequency) {
+        int bucket = bucketOf(frequency);
+        return bucket < 0 ? 0 : offsets[bucket + 1] - offsets[bucket];
+    }
+
+    /**
+     * @param frequency, the frequency of the bucket
+     * @param index,     position in the bucket, 0 for the word seen last of its bucket
+     * @return the id of the word at the given position of the bucket
+     */
+    int id(int frequency, int index) {
+        return ids[offsets[bucketOf(frequency)] + index];
+    }
+
+    /**
+     * @param frequency, a frequency seen in the counter
+     * @return the number of words seen at least frequency times
+     */
+    int sizeAtLeast(int frequency) {
+        return ids.length - offsets[bucketOf(frequency)];
+    }
+
+    /**
+     * @param rank, the rank of the word, 0 for the most frequent word
+     * @return the id of the word with the given rank
+     */
+    int idByRank(int rank) {
+        return ids[ids.length - 1 - rank];
+    }
+
+    /**
+     * @return the bucket holding the words of the given frequency, negative if there is none
+     */
+    private int bucketOf(int frequency) {
+        if (frequencies == null) {
+            return frequency < offsets.length - 1 ? frequency : -1;
+        }
+
+        return Arrays.binarySearch(frequencies, frequency);
+    }
+
+    /**
+     * An open addressing hash table from a count to an int value, sized by the number of
+     * distinct counts. Counts are never negative, so -1 marks an empty slot.
+     */
+    private static final class CountTable {
+        private static final int EMPTY = -1;
+
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private int size = 0;
+
+        CountTable() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        void increment(int key) {
+            // Find the slot first, it may grow the table
+            int slot = slot(key);
+            values[slot]++;
+        }
+
+        int get(int key) {
+            int slot = slot(key);
+            return values[slot];
+        }
+
+        /**
+         * @return the value the key had before
+         */
+        int replace(int key, int value) {
+            int slot = slot(key);
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        int[] keys() {
+            int[] distinct = new int[size];
+            int i = 0;
+            for (int key : keys) {
+                if (key != EMPTY) {
+                    distinct[i++] = key;
+                }
+            }
+
+            return distinct;
+        }
+
+        /**
+         * @return the slot of the key, inserting the key with a value of 0 if it is missing
+         */
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    // Keep the load factor at or below one half
+                    if (++size << 1 > keys.length) {
+                        grow();
+                        return slot(key);
+                    }
+
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length << 1];
+            values = new int[oldKeys.length << 1];
+            Arrays.fill(keys, EMPTY);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            int hash = key * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The interface {@code FrequencySketch} is implemented by the fixed size summaries counting the
+ * words of an approximate {@link CountingMode}. A sketch is fed the words one at a time, after
+ * the stop words were dropped and the words were stemmed, and is used by a single search.
+ */
+interface FrequencySketch {
+
+    /**
+     * This method counts the word held in the buffer. The buffer is reused by the caller.
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     */
+    void offer(char[] chars, int offset, int length);
+
+    /**
+     * This method counts the word
+     *
+     * @param word, the word to count
+     */
+    void offer(String word);
+
+    /**
+     * This method returns the most frequent words counted so far with their estimated counts
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none are returned if less than 1
+     * @param tieBreak,              the order of words with the same estimated count
+     *
+     * @return the k frequent words with their estimated counts and errors
+     */
+    TopKResult topK(int numberOfFrequentWords, TieBreak tieBreak);
+}
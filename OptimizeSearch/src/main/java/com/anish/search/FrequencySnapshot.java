@@ -0,0 +1,628 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The class {@code FrequencySnapshot} is the count of every distinct word of a search in a
+ * compact binary form, which can be written to a file and memory mapped back in without
+ * recounting the text. Two snapshots merge into one holding the counts of both, so counting new
+ * text and merging it into the snapshot of the text counted before gives the same counts as
+ * counting all of it again. See {@link FrequentWordSearcher#snapshot(String)}.
+ *
+ * <p>The words are kept sorted in a front coded dictionary: every word is written as the number
+ * of leading characters it shares with the word before it followed by the rest of its
+ * characters. Every {@link #BLOCK_SIZE} words a block starts with a word written in full, and a
+ * table holds where each block starts, so a word can be found by a binary search over the first
+ * words of the blocks. The counts follow as varints in the order of the words. A header holds
+ * the number of words counted, the number of distinct words, the sizes of the sections and a
+ * CRC32 checksum of the whole snapshot but the checksum itself. Loading a snapshot only checks
+ * the header, so it costs the same however large the snapshot is, and {@link #verify()} checks
+ * the checksum, which reads every byte.
+ *
+ * <p>The most frequent words are selected from the counts alone with a heap of size k, and only
+ * the k selected words are decoded. Words with the same count are ordered alphabetically, since
+ * the snapshot does not keep where a word was first seen. A snapshot holds at most 2GB. An
+ * instance is immutable and can be read by any number of threads at the same time.
+ */
+public final class FrequencySnapshot {
+    /** Number of words in a block of the dictionary, the first of them written in full */
+    static final int BLOCK_SIZE = 16;
+
+    /** The first four bytes of a snapshot, "WFS1" */
+    private static final int MAGIC = 0x57465331;
+
+    private static final int VERSION = 1;
+
+    /** Positions of the fields of the header */
+    private static final int VERSION_OFFSET = 4;
+    private static final int TOTAL_OFFSET = 8;
+    private static final int DISTINCT_OFFSET = 16;
+    private static final int BLOCKS_OFFSET = 20;
+    private static final int DICTIONARY_LENGTH_OFFSET = 24;
+    private static final int COUNTS_LENGTH_OFFSET = 28;
+    private static final int CHECKSUM_OFFSET = 32;
+    private static final int HEADER_SIZE = 40;
+
+    /** Number of bytes of an entry of the block table, the start of the block in the dictionary
+     *  and the start of its counts */
+    private static final int BLOCK_ENTRY_SIZE = 8;
+
+    /** The whole snapshot, header included */
+    private final ByteBuffer buffer;
+
+    /** Number of words counted */
+    private final long totalTokenCount;
+
+    /** Number of distinct words */
+    private final int distinctWordCount;
+
+    /** Number of blocks of the dictionary */
+    private final int blockCount;
+
+    /** Position of the first word of the dictionary */
+    private final int dictionaryStart;
+
+    /** Position of the first count */
+    private final int countsStart;
+
+    /**
+     * @param buffer, the snapshot, owned by the snapshot from now on
+     * @throws IOException, if the buffer is not a snapshot or its header is inconsistent
+     */
+    private FrequencySnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a frequency snapshot");
+        }
+
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported version " + buffer.getInt(VERSION_OFFSET) + " of frequency snapshot");
+        }
+
+        this.buffer = buffer;
+        this.totalTokenCount = buffer.getLong(TOTAL_OFFSET);
+        this.distinctWordCount = buffer.getInt(DISTINCT_OFFSET);
+        this.blockCount = buffer.getInt(BLOCKS_OFFSET);
+        this.dictionaryStart = HEADER_SIZE + blockCount * BLOCK_ENTRY_SIZE;
+        this.countsStart = dictionaryStart + buffer.getInt(DICTIONARY_LENGTH_OFFSET);
+
+        if (totalTokenCount < 0 || distinctWordCount < 0
+                || buffer.getInt(DICTIONARY_LENGTH_OFFSET) < 0 || buffer.getInt(COUNTS_LENGTH_OFFSET) < 0
+                || blockCount != (distinctWordCount + BLOCK_SIZE - 1) / BLOCK_SIZE
+                || (long) countsStart + buffer.getInt(COUNTS_LENGTH_OFFSET) != buffer.capacity()) {
+            throw new IOException("Frequency snapshot is truncated or corrupt");
+        }
+    }
+
+    /**
+     * This method memory maps the snapshot written to the given file. Only the header is read
+     * and checked, the words and counts are read when they are asked for, so loading takes the
+     * same time however large the snapshot is. Call {@link #verify()} to check the checksum of
+     * a snapshot which may have been damaged, a damaged snapshot may otherwise give wrong counts.
+     *
+     * @param path, the file the snapshot was written to
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read or is not a valid snapshot
+     * @return the snapshot
+     */
+    public static FrequencySnapshot load(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path of the snapshot cannot be null");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Frequency snapshot " + path + " is larger than 2GB");
+            }
+
+            return new FrequencySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * This method creates the snapshot of the counted words. Words with a count of 0, e.g. the
+     * stop words, are left out.
+     *
+     * @param vocabulary, the counter of words and their respective frequency
+     * @return the snapshot of the counts
+     */
+    static FrequencySnapshot of(Vocabulary vocabulary) {
+        int[] ids = WordSort.alphabeticalIds(vocabulary);
+        Encoder encoder = new Encoder();
+        for (int id : ids) {
+            if (vocabulary.count(id) != 0) {
+                encoder.add(vocabulary.word(id), vocabulary.count(id));
+            }
+        }
+
+        return encoder.finish();
+    }
+
+    /**
+     * This method writes the snapshot to the given file. The snapshot is written to a
+     * temporary file next to it which then replaces the file, so a snapshot loaded from the
+     * file before is not affected and a snapshot can be written back to the file it was loaded
+     * from.
+     *
+     * @param path, the file to write the snapshot to
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path of the snapshot cannot be null");
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = buffer.duplicate();
+                bytes.clear();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * This method merges the two snapshots into a new one, adding up the counts of the words
+     * found in both. Both dictionaries are read once in order, so merging takes time linear in
+     * their sizes.
+     *
+     * @param other, the snapshot to merge with this one
+     *
+     * @throws IllegalArgumentException, if other is null
+     * @return the snapshot of the counts of both snapshots
+     */
+    public FrequencySnapshot merge(FrequencySnapshot other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Snapshot to merge cannot be null");
+        }
+
+        Encoder encoder = new Encoder();
+        Cursor left = new Cursor(0);
+        Cursor right = other.new Cursor(0);
+        boolean hasLeft = left.next();
+        boolean hasRight = right.next();
+        while (hasLeft || hasRight) {
+            int order = !hasLeft ? 1 : !hasRight ? -1 : left.compareTo(right);
+            if (order < 0) {
+                encoder.add(left.word(), left.count);
+                hasLeft = left.next();
+            } else if (order > 0) {
+                encoder.add(right.word(), right.count);
+                hasRight = right.next();
+            } else {
+                encoder.add(left.word(), left.count + right.count);
+                hasLeft = left.next();
+                hasRight = right.next();
+            }
+        }
+
+        return encoder.finish();
+    }
+
+    /**
+     * This method checks the checksum of the snapshot. It reads every byte of the snapshot, so it
+     * takes time linear in its size.
+     *
+     * @throws IOException, if the checksum does not match, i.e. the snapshot was damaged
+     */
+    public void verify() throws IOException {
+        if (checksum(buffer) != buffer.getLong(CHECKSUM_OFFSET)) {
+            throw new IOException("Checksum of frequency snapshot does not match");
+        }
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    public long totalTokenCount() {
+        return totalTokenCount;
+    }
+
+    /**
+     * @return the number of distinct words counted
+     */
+    public int distinctWordCount() {
+        return distinctWordCount;
+    }
+
+    /**
+     * This method looks the word up with a binary search over the first words of the blocks,
+     * then decodes the words of its block only
+     *
+     * @param word, the word to look up
+     *
+     * @throws IllegalArgumentException, if word is null
+     * @return the count of the word, 0 if it was never counted
+     */
+    public long count(String word) {
+        if (word == null) {
+            throw new IllegalArgumentException("Word cannot be null");
+        }
+
+        int low = 0;
+        int high = blockCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Cursor cursor = new Cursor(middle);
+            cursor.next();
+            if (cursor.compareTo(word) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        if (high < 0) {
+            return 0;
+        }
+
+        Cursor cursor = new Cursor(high);
+        for (int i = 0; i < BLOCK_SIZE && cursor.next(); i++) {
+            int order = cursor.compareTo(word);
+            if (order == 0) {
+                return cursor.count;
+            } else if (order > 0) {
+                break;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * This method selects the most frequent words from the counts with a min heap of size k.
+     * Words with the same count are ordered alphabetically, the order of the dictionary, so the
+     * result is the same as a search with {@link TieBreak#LEXICOGRAPHIC}. Only the words of the
+     * result are decoded.
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none if less than 1
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(int numberOfFrequentWords) {
+        int capacity = Math.max(0, Math.min(numberOfFrequentWords, distinctWordCount));
+        int[] heap = new int[capacity];
+        long[] heapCounts = new long[capacity];
+        int heapSize = 0;
+
+        Cursor cursor = new Cursor(0);
+        for (int ordinal = 0; capacity > 0 && cursor.nextCount(); ordinal++) {
+            long count = cursor.count;
+            if (heapSize < capacity) {
+                heap[heapSize] = ordinal;
+                heapCounts[heapSize] = count;
+                siftUp(heap, heapCounts, heapSize++);
+            } else if (count > heapCounts[0]) {
+                // A later word with the same count comes after the root in the dictionary
+                heap[0] = ordinal;
+                heapCounts[0] = count;
+                siftDown(heap, heapCounts, heapSize);
+            }
+        }
+
+        String[] words = new String[heapSize];
+        long[] counts = new long[heapSize];
+        for (int rank = heapSize - 1; rank >= 0; rank--) {
+            words[rank] = word(heap[0]);
+            counts[rank] = heapCounts[0];
+            heap[0] = heap[rank];
+            heapCounts[0] = heapCounts[rank];
+            siftDown(heap, heapCounts, rank);
+        }
+
+        return new TopKResult(words, counts, totalTokenCount, distinctWordCount);
+    }
+
+    /**
+     * @return the number of bytes of the snapshot, header included
+     */
+    public int sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return distinctWordCount + " distinct words of " + totalTokenCount + " counted, "
+                + buffer.capacity() + " bytes";
+    }
+
+    /**
+     * @param ordinal, the position of the word in the dictionary
+     * @return the word, decoded from the start of its block
+     */
+    private String word(int ordinal) {
+        Cursor cursor = new Cursor(ordinal / BLOCK_SIZE);
+        for (int i = ordinal % BLOCK_SIZE; i >= 0; i--) {
+            cursor.next();
+        }
+
+        return cursor.word();
+    }
+
+    /**
+     * @return true, if the word a ranks above the word b: a higher count, or the same count and
+     *         earlier in the dictionary
+     */
+    private static boolean ranksAbove(int[] heap, long[] counts, int a, int b) {
+        return counts[a] != counts[b] ? counts[a] > counts[b] : heap[a] < heap[b];
+    }
+
+    private static void siftUp(int[] heap, long[] counts, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(heap, counts, parent, index)) {
+                break;
+            }
+
+            swap(heap, counts, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, long[] counts, int heapSize) {
+        int index = 0;
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            if (child + 1 < heapSize && ranksAbove(heap, counts, child, child + 1)) {
+                child++;
+            }
+
+            if (!ranksAbove(heap, counts, index, child)) {
+                break;
+            }
+
+            swap(heap, counts, index, child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] heap, long[] counts, int a, int b) {
+        int ordinal = heap[a];
+        long count = counts[a];
+        heap[a] = heap[b];
+        counts[a] = counts[b];
+        heap[b] = ordinal;
+        counts[b] = count;
+    }
+
+    /**
+     * @return the CRC32 of the header up to the checksum followed by everything after the header
+     */
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        ByteBuffer header = buffer.duplicate();
+        header.clear();
+        header.limit(CHECKSUM_OFFSET);
+        crc.update(header);
+
+        ByteBuffer body = buffer.duplicate();
+        body.clear();
+        body.position(HEADER_SIZE);
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    /**
+     * The reader of the words and counts of the dictionary in order, starting at a block. The
+     * characters of the current word are kept in a buffer, so reading a word creates no string.
+     */
+    private final class Cursor {
+        private int wordPosition;
+        private int countPosition;
+
+        /** Number of words left in the dictionary */
+        private int remaining;
+
+        private char[] chars = new char[32];
+        private int length = 0;
+        private long count;
+
+        /**
+         * @param block, the block to start at
+         */
+        Cursor(int block) {
+            int entry = HEADER_SIZE + block * BLOCK_ENTRY_SIZE;
+            this.remaining = distinctWordCount - block * BLOCK_SIZE;
+            if (remaining > 0) {
+                this.wordPosition = dictionaryStart + buffer.getInt(entry);
+                this.countPosition = countsStart + buffer.getInt(entry + 4);
+            }
+        }
+
+        /**
+         * @return true, if a word was read, false at the end of the dictionary
+         */
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+
+            int shared = readVarint();
+            int suffix = readVarint();
+            length = shared + suffix;
+            if (length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(length, chars.length << 1));
+            }
+            for (int i = shared; i < length; i++) {
+                chars[i] = (char) readVarint();
+            }
+
+            return nextCount();
+        }
+
+        /**
+         * This method reads the next count without its word, which leaves the word behind. Only
+         * used by a cursor reading nothing but counts.
+         *
+         * @return true, if a count was read, false at the end of the dictionary
+         */
+        boolean nextCount() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+
+            count = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(countPosition++);
+                count |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            return true;
+        }
+
+        String word() {
+            return new String(chars, 0, length);
+        }
+
+        int compareTo(Cursor other) {
+            int common = Math.min(length, other.length);
+            for (int i = 0; i < common; i++) {
+                if (chars[i] != other.chars[i]) {
+                    return chars[i] - other.chars[i];
+                }
+            }
+
+            return length - other.length;
+        }
+
+        int compareTo(String word) {
+            int common = Math.min(length, word.length());
+            for (int i = 0; i < common; i++) {
+                if (chars[i] != word.charAt(i)) {
+                    return chars[i] - word.charAt(i);
+                }
+            }
+
+            return length - word.length();
+        }
+
+        /**
+         * @return the next varint of at most 32 bits of the dictionary
+         */
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(wordPosition++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            return value;
+        }
+    }
+
+    /**
+     * The writer of a snapshot, taking the words in alphabetical order
+     */
+    private static final class Encoder {
+        private final ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream counts = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+
+        private String previous = null;
+        private int words = 0;
+        private long total = 0;
+
+        /**
+         * @param word,  the word, after the word added before it
+         * @param count, the count of the word, at least 1
+         */
+        void add(String word, long count) {
+            int shared = 0;
+            if (words % BLOCK_SIZE == 0) {
+                writeInt(blocks, dictionary.size());
+                writeInt(blocks, counts.size());
+            } else {
+                int common = Math.min(previous.length(), word.length());
+                while (shared < common && previous.charAt(shared) == word.charAt(shared)) {
+                    shared++;
+                }
+            }
+
+            writeVarint(dictionary, shared);
+            writeVarint(dictionary, word.length() - shared);
+            for (int i = shared; i < word.length(); i++) {
+                writeVarint(dictionary, word.charAt(i));
+            }
+            writeVarint(counts, count);
+
+            previous = word;
+            words++;
+            total += count;
+        }
+
+        FrequencySnapshot finish() {
+            long size = (long) HEADER_SIZE + blocks.size() + dictionary.size() + counts.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Frequency snapshot would be larger than 2GB");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(total);
+            buffer.putInt(words);
+            buffer.putInt(blocks.size() / BLOCK_ENTRY_SIZE);
+            buffer.putInt(dictionary.size());
+            buffer.putInt(counts.size());
+            buffer.putLong(0);
+            buffer.put(blocks.toByteArray());
+            buffer.put(dictionary.toByteArray());
+            buffer.put(counts.toByteArray());
+            buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+
+            try {
+                return new FrequencySnapshot(buffer);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Frequency snapshot was written incorrectly", ex);
+            }
+        }
+
+        private static void writeInt(ByteArrayOutputStream output, int value) {
+            output.write(value >>> 24);
+            output.write(value >>> 16);
+            output.write(value >>> 8);
+            output.write(value);
+        }
+
+        private static void writeVarint(ByteArrayOutputStream output, long value) {
+            while ((value & ~0x7FL) != 0) {
+                output.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            output.write((int) value);
+        }
+    }
+}
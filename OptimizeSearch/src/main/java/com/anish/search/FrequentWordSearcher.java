@@ -4,19 +4,26 @@
 package com.anish.search;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-
-import static org.junit.Assert.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.log4j.Logger;
 import org.tartarus.snowball.SnowballStemmer;
@@ -40,6 +47,12 @@ import org.tartarus.snowball.SnowballStemmer;
  * This class reads and populates the stop words from a configuration file StopWords.txt
  * You can edit this list to add or delete any stop-words in the future.
  * 
+ * <p>A searcher is created with {@link #builder()} which sets the language of the stemmer, the
+ * stop words and the default number of frequent words. A searcher is immutable and every search
+ * stems with its own stemmer, so one instance can serve any number of concurrent searches. The
+ * static methods use a shared default searcher which {@link #switchOnWordStemmer(String)} and
+ * {@link #switchOffWordStemmer()} replace as a whole.
+ * 
  * <p>The <tt>extractWordFrequency</tt>, <tt>bucketSortFrequency</tt> operations run in 
  * O(n) time. The <tt>getMostFrequentWords</tt> runs in O(k) time where k = k = {@link Demo#numberOfFrequentWords}
  * 
@@ -55,22 +68,47 @@ import org.tartarus.snowball.SnowballStemmer;
  *
  */
 public final class FrequentWordSearcher {
-    /**
-     * Don't let anyone instantiate this class.
-     */
-    private FrequentWordSearcher() {}
 
     /** Logger object to log essential details */
     private static Logger logger = Logger.getLogger(FrequentWordSearcher.class);
 
-    /** Set of words that will be ignored */
-    private static Set<String> stopWords = new HashSet<String>();
+    /** Number of characters read at a time from a reader */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /** Largest number of characters of a text counted by a single parallel task */
+    private static final int PARALLEL_TEXT_THRESHOLD = 1 << 20;
+
+    /** Largest number of bytes of a file counted by a single parallel task */
+    private static final long PARALLEL_FILE_THRESHOLD = 64L << 20;
+
+    /** Largest number of bytes of a file that are memory mapped at a time */
+    private static final long MAP_SEGMENT_SIZE = Integer.MAX_VALUE;
 
-    /** The stemmer object used for normalizing the text */
-    private static SnowballStemmer stemmer = null;
+    /** Largest number of most frequent words selected with a heap once the counts are too large
+     *  for a bucket per frequency, more words are selected from sparse buckets */
+    private static final int HEAP_SELECTION_LIMIT = 128;
+
+    /** Number of most frequent words found when the caller does not ask for a number */
+    private static final int DEFAULT_NUMBER_OF_FREQUENT_WORDS = 10;
+
+    /** Number of stems cached by default when the words are stemmed */
+    private static final int DEFAULT_STEM_CACHE_SIZE = 1 << 14;
+
+    /** Number of counters of an approximate search by default */
+    private static final int DEFAULT_SPACE_SAVING_COUNTERS = 1 << 16;
+
+    /** Number of counters in a row of a Count-Min sketch by default */
+    private static final int DEFAULT_COUNT_MIN_WIDTH = 1 << 16;
+
+    /** Number of rows of a Count-Min sketch by default */
+    private static final int DEFAULT_COUNT_MIN_DEPTH = 4;
+
+    /** Set of words ignored by default, read from StopWords.txt */
+    private static final Set<String> DEFAULT_STOP_WORDS;
 
     /** This block will populate the list of stop words only once */
     static {
+        Set<String> stopWords = new HashSet<String>();
         try {
             InputStream inputStream =
                     FrequentWordSearcher.class.getClassLoader().getResourceAsStream("StopWords.txt");
@@ -88,6 +126,283 @@ public final class FrequentWordSearcher {
         } catch (IOException ex) {
             logger.debug("Cannot open the file for reading " + ex.getMessage());
         }
+
+        DEFAULT_STOP_WORDS = Collections.unmodifiableSet(stopWords);
+    }
+
+    /** The searcher used by the static methods, replaced as a whole when the stemmer is switched */
+    private static volatile FrequentWordSearcher defaultSearcher = builder().build();
+
+    /** Set of words that will be ignored */
+    private final Set<String> stopWords;
+
+    /** The stop words again, looked up by the characters in the tokenizer buffer */
+    private final WordCounter stopWordTable;
+
+    /** The class of the stemmer used for normalizing the text, null if words are not stemmed */
+    private final Class<? extends SnowballStemmer> stemmerClass;
+
+    /** Number of most frequent words found when the caller does not ask for a number */
+    private final int numberOfFrequentWords;
+
+    /** When the words are stemmed, ignored if not stemming */
+    private final StemmingStrategy stemmingStrategy;
+
+    /** The stems of recently seen words, shared by all searches. Null if not stemming or disabled */
+    private final StemCache stemCache;
+
+    /** The order of words seen the same number of times */
+    private final TieBreak tieBreak;
+
+    /** Number of counters of a Space-Saving search */
+    private final int spaceSavingCounters;
+
+    /** Number of counters in a row of a Count-Min sketch */
+    private final int countMinWidth;
+
+    /** Number of rows of a Count-Min sketch */
+    private final int countMinDepth;
+
+    /** True, if the exact searches keep the words and their counts outside of the heap */
+    private final boolean offHeapVocabulary;
+
+    /** Number of bytes the words of an exact search may take before they are spilled to disk,
+     *  0 if they are never spilled */
+    private final long memoryBudget;
+
+    /** The directory the words are spilled to, null for the default temporary directory */
+    private final Path spillDirectory;
+
+    private FrequentWordSearcher(Builder builder, Class<? extends SnowballStemmer> stemmerClass) {
+        this.stopWords = builder.stopWords;
+        this.stemmerClass = stemmerClass;
+        this.numberOfFrequentWords = builder.numberOfFrequentWords;
+        this.stemmingStrategy = builder.stemmingStrategy;
+        this.stemCache = stemmerClass != null && builder.stemCacheSize > 0
+                ? new StemCache(builder.stemCacheSize) : null;
+        this.tieBreak = builder.tieBreak;
+        this.spaceSavingCounters = builder.spaceSavingCounters;
+        this.countMinWidth = builder.countMinWidth;
+        this.countMinDepth = builder.countMinDepth;
+        this.offHeapVocabulary = builder.offHeapVocabulary;
+        this.memoryBudget = builder.memoryBudget;
+        this.spillDirectory = builder.spillDirectory;
+
+        this.stopWordTable = new WordCounter(stopWords.size());
+        for (String stopWord : stopWords) {
+            stopWordTable.intern(stopWord);
+        }
+    }
+
+    /**
+     * This method creates a builder for a searcher. A searcher is immutable, so a single
+     * instance can be shared by any number of threads searching at the same time.
+     *
+     * @return a builder for a searcher that uses the default stop words and no stemmer
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The class {@code Builder} configures a {@link FrequentWordSearcher}
+     */
+    public static final class Builder {
+        private String language = null;
+        private Set<String> stopWords = DEFAULT_STOP_WORDS;
+        private int numberOfFrequentWords = DEFAULT_NUMBER_OF_FREQUENT_WORDS;
+        private int stemCacheSize = DEFAULT_STEM_CACHE_SIZE;
+        private StemmingStrategy stemmingStrategy = StemmingStrategy.PER_WORD;
+        private TieBreak tieBreak = TieBreak.FIRST_OCCURRENCE;
+        private int spaceSavingCounters = DEFAULT_SPACE_SAVING_COUNTERS;
+        private int countMinWidth = DEFAULT_COUNT_MIN_WIDTH;
+        private int countMinDepth = DEFAULT_COUNT_MIN_DEPTH;
+        private boolean offHeapVocabulary = false;
+        private long memoryBudget = 0;
+        private Path spillDirectory = null;
+
+        private Builder() {}
+
+        /**
+         * This method sets the language of the porter stemmer used to normalize the words, e.g.
+         * "english". The stemmer only supports a few languages.
+         * See <a href="http://snowball.tartarus.org/index.php</a>
+         *
+         * @param language, the language of the stemmer, null to not stem the words
+         * @return this builder
+         */
+        public Builder language(String language) {
+            this.language = language;
+            return this;
+        }
+
+        /**
+         * @param stopWords, the words to ignore instead of the ones read from StopWords.txt
+         * @return this builder
+         */
+        public Builder stopWords(Collection<String> stopWords) {
+            if (stopWords == null) {
+                throw new IllegalArgumentException("Valid stop words required, use an empty set for none");
+            }
+
+            this.stopWords = Collections.unmodifiableSet(new HashSet<String>(stopWords));
+            return this;
+        }
+
+        /**
+         * @param numberOfFrequentWords, the number of most frequent words found when the caller
+         *                               does not ask for a number. Can never be less than 1
+         * @return this builder
+         */
+        public Builder numberOfFrequentWords(int numberOfFrequentWords) {
+            if (numberOfFrequentWords <= 0) {
+                throw new IllegalArgumentException("Number of frequent words should be at least 1");
+            }
+
+            this.numberOfFrequentWords = numberOfFrequentWords;
+            return this;
+        }
+
+        /**
+         * This method sets the number of stems cached by the searcher. Each word is then only
+         * stemmed the first time it is seen instead of every time. The cache is only used when
+         * the words are stemmed.
+         *
+         * @param stemCacheSize, the largest number of stems cached, 0 to not cache the stems
+         * @return this builder
+         */
+        public Builder stemCacheSize(int stemCacheSize) {
+            if (stemCacheSize < 0) {
+                throw new IllegalArgumentException("Stem cache size can never be negative");
+            }
+
+            this.stemCacheSize = stemCacheSize;
+            return this;
+        }
+
+        /**
+         * @param stemmingStrategy, when the words are stemmed, see {@link StemmingStrategy}
+         * @return this builder
+         */
+        public Builder stemmingStrategy(StemmingStrategy stemmingStrategy) {
+            if (stemmingStrategy == null) {
+                throw new IllegalArgumentException("Valid stemming strategy required");
+            }
+
+            this.stemmingStrategy = stemmingStrategy;
+            return this;
+        }
+
+        /**
+         * @param tieBreak, the order of words seen the same number of times, see {@link TieBreak}
+         * @return this builder
+         */
+        public Builder tieBreak(TieBreak tieBreak) {
+            if (tieBreak == null) {
+                throw new IllegalArgumentException("Valid tie break required");
+            }
+
+            this.tieBreak = tieBreak;
+            return this;
+        }
+
+        /**
+         * This method sets the number of counters m of a {@link CountingMode#SPACE_SAVING}
+         * search. The memory of the search is fixed by m, and no count is more than N / m above
+         * the true count for N words counted.
+         *
+         * @param spaceSavingCounters, the number of counters, between 1 and 2^28
+         * @return this builder
+         */
+        public Builder spaceSavingCounters(int spaceSavingCounters) {
+            if (spaceSavingCounters <= 0 || spaceSavingCounters > 1 << 28) {
+                throw new IllegalArgumentException("Number of counters should be between 1 and " + (1 << 28));
+            }
+
+            this.spaceSavingCounters = spaceSavingCounters;
+            return this;
+        }
+
+        /**
+         * This method sets the size of the sketch of a {@link CountingMode#COUNT_MIN_SKETCH}
+         * search. The sketch takes 8 bytes per counter. With probability 1 - e^-depth no
+         * estimate is more than e N / width above the true count for N words counted.
+         *
+         * @param width, the number of counters in a row, rounded up to a power of two
+         * @param depth, the number of rows, each with its own hash of the words
+         * @throws IllegalArgumentException, if width or depth is less than 1 or there are more
+         *                                   than 2^30 counters once the width is rounded up
+         * @return this builder
+         */
+        public Builder countMinSketch(int width, int depth) {
+            CountMinSketch.checkSize(width, depth);
+
+            this.countMinWidth = width;
+            this.countMinDepth = depth;
+            return this;
+        }
+
+        /**
+         * This method makes the exact searches of a text, reader or file keep the words and
+         * their counts in an {@link OffHeapWordCounter} outside of the heap, for vocabularies
+         * too large to keep on the heap without long garbage collection pauses. Only the words
+         * of the result are turned into strings. When stemming, the words are stemmed once all
+         * words are counted whatever the {@link StemmingStrategy}. The result is the same as on
+         * the heap. Parallel searches always count on the heap.
+         *
+         * @param offHeapVocabulary, true to count outside of the heap
+         * @return this builder
+         */
+        public Builder offHeapVocabulary(boolean offHeapVocabulary) {
+            this.offHeapVocabulary = offHeapVocabulary;
+            return this;
+        }
+
+        /**
+         * This method makes the exact searches of a text, reader or file spill the distinct
+         * words to disk once they take more than the memory budget, for vocabularies which do
+         * not fit in memory. The words counted so far are written sorted with their counts to a
+         * temporary file and counting goes on with no words in memory. The files are merged
+         * once all words are counted and deleted when the search is done, see
+         * {@link SpillingWordCounter}. When stemming, every word is stemmed before it is counted
+         * whatever the {@link StemmingStrategy}. The result is the same as in memory. Spilling
+         * takes precedence over {@link #offHeapVocabulary(boolean)}, and parallel searches never
+         * spill.
+         *
+         * @param memoryBudget, the estimated number of bytes the distinct words may take
+         * @param directory,    the directory of the temporary files, null for the default
+         *                      temporary directory
+         * @throws IllegalArgumentException, if memoryBudget is less than 1
+         * @return this builder
+         */
+        public Builder spillToDisk(long memoryBudget, Path directory) {
+            if (memoryBudget <= 0) {
+                throw new IllegalArgumentException("Memory budget should be at least 1 byte");
+            }
+
+            this.memoryBudget = memoryBudget;
+            this.spillDirectory = directory;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException, if there is no stemmer for the language on the classpath
+         * @return a new searcher
+         */
+        public FrequentWordSearcher build() {
+            Class<? extends SnowballStemmer> stemmerClass = null;
+            if (language != null) {
+                try {
+                    stemmerClass = Class.forName("org.tartarus.snowball.ext." + language + "Stemmer")
+                            .asSubclass(SnowballStemmer.class);
+                } catch (ClassNotFoundException | ClassCastException ex) {
+                    throw new IllegalArgumentException("Class org.tartarus.snowball.ext." + language
+                            + "Stemmer not found on classPath", ex);
+                }
+            }
+
+            return new FrequentWordSearcher(this, stemmerClass);
+        }
     }
 
     /**
@@ -98,36 +413,65 @@ public final class FrequentWordSearcher {
      *         false, otherwise
      */
     public static boolean isStemmerInitialized() {
-        return stemmer != null;
+        return defaultSearcher.usesStemmer();
     }
 
     /**
-     * This method stops using the porter stemmer from this point onwards
+     * This method stops using the porter stemmer from this point onwards for the static methods.
+     * Searches already running are not affected.
      */
     public static void switchOffWordStemmer() {
         if (isStemmerInitialized()) {
-            stemmer = null;
+            defaultSearcher = builder().build();
         }
     }
 
     /**
-     * This method initializes an instance of porter stemmer from the client. The default
-     * language that it uses is English which is currently hardcoded but it can be expanded
-     * to use multiple languages.
+     * This method initializes the porter stemmer for the static methods from the client. The
+     * default language that it uses is English which is currently hardcoded but it can be expanded
+     * to use multiple languages. Searches already running are not affected. Use a searcher from
+     * {@link #builder()} to stem only some of the searches.
      * See <a href="http://snowball.tartarus.org/index.php</a>
      */
     public static void switchOnWordStemmer(String lang) {
         if (logger.isDebugEnabled())
             logger.info("Initializing the porter stemmer client");
         try {
-            Class<?> stemClass = Class.forName("org.tartarus.snowball.ext." + lang + "Stemmer");
-            stemmer = (SnowballStemmer) stemClass.newInstance();
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex) {
-            logger.warn("Class org.tartarus.snowball.ext.englishStemmer not found on classPath");
-            stemmer = null;
+            defaultSearcher = builder().language(lang).build();
+        } catch (IllegalArgumentException ex) {
+            logger.warn(ex.getMessage());
+            defaultSearcher = builder().build();
         }
     }
 
+    /**
+     * @return true, if this searcher normalizes the words with a stemmer
+     */
+    public boolean usesStemmer() {
+        return stemmerClass != null;
+    }
+
+    /**
+     * @return the cache of stems with its hit and miss counts, null if stems are not cached
+     */
+    public StemCache getStemCache() {
+        return stemCache;
+    }
+
+    /**
+     * @return the number of most frequent words found when the caller does not ask for a number
+     */
+    int numberOfFrequentWords() {
+        return numberOfFrequentWords;
+    }
+
+    /**
+     * @return the order of words seen the same number of times
+     */
+    TieBreak tieBreak() {
+        return tieBreak;
+    }
+
     /**
      * This method validates the given input
      * @param text
@@ -140,204 +484,1599 @@ public final class FrequentWordSearcher {
     }
 
     /**
-     * This method populates the map with the mapping from word to its frequency. It starts by first
-     * checking if the given word is a stop word. In that case it will ignore and move onto the next
-     * word. If the client has initialized the stemmer then the method will get the stem of the current
-     * word and that would be added to the map, otherwise the original word and its count is added.
-     * This method runs in linear time O(n) since we loop over each element present in the tokenized
-     * string array.
+     * This method validates the given source of text
+     * @param source, the reader, stream or path holding the text
+     * @throws IllegalArgumentException, if source is null
+     */
+    private static void validateInput(final Object source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Valid text source required to find the most frequent words");
+        }
+    }
+
+    /**
+     * This method validates the given counting mode
+     * @param countingMode, how the words are counted
+     * @throws IllegalArgumentException, if countingMode is null
+     */
+    private static void validateInput(final CountingMode countingMode) {
+        if (countingMode == null) {
+            throw new IllegalArgumentException("Valid counting mode required to find the most frequent words");
+        }
+    }
+
+    /**
+     * This method counts the frequency of every word in the text. The text is
+     * tokenized in a single pass by the {@link WordTokenizer} and every word is counted as soon
+     * as it is found, so no cleaned copy of the text or array of words is ever built.
+     * This method runs in linear time O(n) where n is the number of characters in the text.
      *
-     * @param wordFrequency, The map containing words and their respective frequency. 
-     *                       can never be empty
-     * @param words,         The list of tokenized strings formed from the input text
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param text,          The text to count the words of
+     *
+     * @return the count of the most frequently occurring word, 0 if the text has no words
      */
-    private static int extractWordFrequency(Map<String, Integer> wordFrequency, String[] words) {
-        Integer maxFreq = 0;
+    int extractWordFrequency(final WordCounter wordFrequency, final String text) {
+        if (text == null || text.isEmpty()) {
+            logger.info("Could not tokenize the text ");
+            return 0;
+        }
 
-        if (words != null && words.length != 0) {
-            for (String word : words) {
-                if (word == null) {
-                    if (logger.isInfoEnabled())
-                        logger.info("Ignoring null values");
+        FrequencyCollector collector = new FrequencyCollector(wordFrequency, newStemmer());
+        new WordTokenizer(collector).tokenize(text);
 
-                    continue;
-                }
-                if (stopWords.contains(word)) {
-                    if (logger.isDebugEnabled())
-                        logger.debug("Ignore the stop word " + word);
-                    continue;
-                } else {
-                    if (isStemmerInitialized()) {
-                        stemmer.setCurrent(word);
-                        if (stemmer.stem()) {
-                            word = stemmer.getCurrent();
-                        }
-
-                        if (logger.isDebugEnabled())
-                            logger.debug("Normalizing the english word to " + word);
-                    }
+        int maxFreq = collector.finish();
+        logger.info("The count of the most occuring word in the text is " + maxFreq);
+        return maxFreq;
+    }
 
-                    int frequency = 1;
-                    if (wordFrequency.containsKey(word)) {
-                        frequency = wordFrequency.get(word) + 1;
-                        if (maxFreq < frequency) {
-                            maxFreq = frequency;
-                        }
-                    }
+    /**
+     * This method counts the frequency of every word reading the text from the given reader.
+     * The text is read in chunks of {@link #READ_BUFFER_SIZE} characters and each chunk is
+     * tokenized and counted before the next one is read, so the memory used is bounded by the
+     * number of distinct words and not by the size of the text.
+     * The reader is not closed.
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param reader,        The reader to count the words of
+     *
+     * @throws IOException, if the reader cannot be read
+     * @return the count of the most frequently occurring word, 0 if the text has no words
+     */
+    int extractWordFrequency(final WordCounter wordFrequency, final Reader reader)
+            throws IOException {
+        FrequencyCollector collector = new FrequencyCollector(wordFrequency, newStemmer());
+        tokenize(new WordTokenizer(collector), reader);
 
-                    wordFrequency.put(word, frequency);
-                }
+        int maxFreq = collector.finish();
+        logger.info("The count of the most occuring word in the text is " + maxFreq);
+        return maxFreq;
+    }
+
+    /**
+     * This method counts the frequency of every word reading the text straight out of the file.
+     * The file is memory mapped in segments of at most segmentSize bytes, so files larger than
+     * 2GB can be read as well, and the bytes are tokenized without ever being decoded into a
+     * string. A word which spans two segments is stitched together by the tokenizer.
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param path,          The ASCII or UTF-8 file to count the words of
+     * @param segmentSize,   The maximum number of bytes mapped at a time
+     *
+     * @throws IOException, if the file cannot be mapped
+     * @return the count of the most frequently occurring word, 0 if the file has no words
+     */
+    int extractWordFrequency(final WordCounter wordFrequency, final Path path,
+            long segmentSize) throws IOException {
+        FrequencyCollector collector = new FrequencyCollector(wordFrequency, newStemmer());
+        tokenize(new WordTokenizer(collector), path, segmentSize);
+
+        int maxFreq = collector.finish();
+        logger.info("The count of the most occuring word in the file is " + maxFreq);
+        return maxFreq;
+    }
+
+    /**
+     * This method tokenizes the text read from the reader in chunks of
+     * {@link #READ_BUFFER_SIZE} characters. The reader is not closed.
+     *
+     * @param tokenizer, the tokenizer handing the words to its sink
+     * @param reader,    the reader to read the text from
+     *
+     * @throws IOException, if the reader cannot be read
+     */
+    private static void tokenize(WordTokenizer tokenizer, Reader reader) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            tokenizer.feed(buffer, 0, read);
+        }
+        tokenizer.finish();
+    }
+
+    /**
+     * This method tokenizes the file memory mapped in segments of at most segmentSize bytes
+     *
+     * @param tokenizer,   the tokenizer handing the words to its sink
+     * @param path,        the ASCII or UTF-8 file to read the text from
+     * @param segmentSize, the maximum number of bytes mapped at a time
+     *
+     * @throws IOException, if the file cannot be mapped
+     */
+    private static void tokenize(WordTokenizer tokenizer, Path path, long segmentSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += segmentSize) {
+                long length = Math.min(segmentSize, size - position);
+                tokenizer.feed(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
             }
-        } else {
-            logger.info("Could not tokenize the text ");
         }
+        tokenizer.finish();
+    }
 
-        logger.info("The count of the most occuring word in the text is " + maxFreq);
-        return maxFreq;
+    /**
+     * @param word,    the word to stem
+     * @param stemmer, the stemmer owned by the caller
+     * @return the stem of the word, taken from the stem cache when the word was seen before
+     */
+    private String stem(String word, SnowballStemmer stemmer) {
+        return WordDictionary.stem(word, stemmer, stemCache);
     }
 
     /**
-     * This method sorts the words by frequencies using a popular sorting technique 
-     * called bucket sort though we do not actually sort it and use a variation of the
-     * technique. We get the maxFrequency from the map and initialize an list of maxFreq
-     * buckets where each bucket is a list of strings having the same frequency.
-     * 
-     * This method is designed to run in O(n). Space is also O(n) which is the extra
-     * array we needed to store(buckets)
-     * See <a href="https://en.wikipedia.org/wiki/Bucket_sort</a>
-     * 
-     * @param wordFrequency, The map containing words and their respective frequency. 
-     *                       can never be empty
-     * @param maxFreq,       Count of the most frequently seen word in the text.
-     *                       can never be less than 1
-     * 
-     * @return list of list, containing strings sorted in order of frequencies with the lowest frequency
-     *         words occurring first
+     * The sink which counts the words handed over by the tokenizer. Without a stemmer every word,
+     * stop words included, is counted straight from the tokenizer buffer so no string is created
+     * for a word already seen. The stop words are then dropped once in {@link #finish()} instead
+     * of being looked up for every word. The same happens when the words are stemmed after
+     * counting. When every word is stemmed, the {@link WordDictionary} turns each word into the
+     * id of its stem, so a word is only turned into a string, checked against the stop words and
+     * stemmed the first time it is seen, and the stem is counted by its id.
      */
-    private static List<List<String>> bucketSortFrequency(Map<String, Integer> wordFrequency,
-            int maxFreq) {
-        assertTrue(!wordFrequency.isEmpty());
-        assertTrue(maxFreq > 0);
+    private final class FrequencyCollector implements TokenSink {
+        private final WordCounter wordFrequency;
 
-        if (logger.isInfoEnabled())
-            logger.info("Sorting the words to their correct bucket locations based on frequency");
+        /** The counter the words are counted into, the surface words when stemming after counting */
+        private final WordCounter counted;
+
+        /** The stemmer owned by this collector, null if words are not stemmed */
+        private final SnowballStemmer stemmer;
 
-        List<List<String>> freqBucket = new ArrayList<List<String>>(maxFreq);
-        for(int i = 0; i < maxFreq; i++) {
-            freqBucket.add(null);
+        /** The ids of the stems when every word is stemmed, null otherwise */
+        private final WordDictionary dictionary;
+
+        FrequencyCollector(WordCounter wordFrequency, SnowballStemmer stemmer) {
+            this.wordFrequency = wordFrequency;
+            this.counted = stemsAfterCounting() ? new WordCounter() : wordFrequency;
+            this.stemmer = stemmer;
+            this.dictionary = stemmer == null || stemsAfterCounting()
+                    ? null : new WordDictionary(counted, stopWords, stemmer, stemCache);
         }
 
-        // Loop and populate bucket as per bucket sort
-        for (Map.Entry<String, Integer> entry : wordFrequency.entrySet()) {
-            String key = entry.getKey();
-            Integer value = entry.getValue() - 1;
+        @Override
+        public void onToken(char[] buffer, int length) {
+            if (dictionary == null) {
+                counted.increment(buffer, 0, length);
+                return;
+            }
 
-            List<String> sameFreqWords = freqBucket.get(value);
-            if (sameFreqWords == null) {
-                sameFreqWords = new ArrayList<String>();
+            int id = dictionary.idOf(buffer, 0, length);
+            if (id >= 0) {
+                counted.add(id, 1);
             }
+        }
 
-            sameFreqWords.add(key);
+        /**
+         * @return the count of the most frequently occurring word
+         */
+        int finish() {
+            return finishCounting(counted, wordFrequency, stemmer);
+        }
+    }
 
-            if (!freqBucket.contains(sameFreqWords)) {
-                freqBucket.set(value, sameFreqWords);
-            }
+    /**
+     * The sink which hands the words of an approximate search to the sketch counting them. The
+     * stop words are skipped before they reach the sketch, since they cannot be taken out of its
+     * counts afterwards, and are looked up straight from the tokenizer buffer. When stemming,
+     * every word is stemmed before it is counted whatever the {@link StemmingStrategy}, the
+     * sketch does not keep the surface words to stem them later.
+     */
+    private final class SketchCollector implements TokenSink {
+        private final FrequencySketch sketch;
+
+        /** The stemmer owned by this collector, null if words are not stemmed */
+        private final SnowballStemmer stemmer;
+
+        SketchCollector(FrequencySketch sketch, SnowballStemmer stemmer) {
+            this.sketch = sketch;
+            this.stemmer = stemmer;
         }
 
+        @Override
+        public void onToken(char[] buffer, int length) {
+            if (stopWordTable.find(buffer, 0, length) >= 0) {
+                return;
+            }
 
-        return freqBucket;
+            if (stemmer == null) {
+                sketch.offer(buffer, 0, length);
+            } else {
+                sketch.offer(stem(new String(buffer, 0, length), stemmer));
+            }
+        }
     }
 
     /**
-     * This method just iterates over the list to retrieve the most frequently occurring words
-     *
-     * @param freqBucket,            List of list containing strings sorted in order of frequencies with the lowest frequency
-     *                               words occurring first. This can never be empty
-     * @param maxFreq,               Count of the most frequently seen word in the text.
-     *                               can never be less than 1
-     * @param numberOfFrequentWords, Required count of most frequent words
-     *                               can never be less than 1
-     *
-     * @return list of words, containing the {@link Demo#numberOfFrequentWords} 
-     */
-    private static List<String> getMostFrequentWords(List<List<String>> freqBucket, 
-            int maxFreq, int numberOfFrequentWords) {
-        assertTrue(numberOfFrequentWords > 0);
-        assertTrue(!freqBucket.isEmpty());
-        assertTrue(maxFreq > 0);
-
-        List<String> mostFrequentWords = new ArrayList<String>();
-        int wordsRequired = 0;
-        bucketLoop:
-        for (int i = freqBucket.size() - 1; i >= 0;) {
-            List<String> sameFreqWords = freqBucket.get(i);
-
-            if (sameFreqWords != null) {
-                for (String sameFreqWord : sameFreqWords) {
-                    if (sameFreqWord == null) {
-                        logger.info("Ignoring null word while getting most Frequent Words");
-                        continue;
-                    }
+     * The sink which counts the words of a batch of documents, see
+     * {@link FrequentWordSearcher#findTopK(Collection, int)}. Every word is turned into the id of
+     * the term it is counted as by a single {@link WordDictionary} shared by all documents, whose
+     * counter also holds the counts of the whole batch, so a word is hashed, turned into a string
+     * and stemmed once per batch. The counts of the current document are kept in an array indexed
+     * by the term id, and only the entries of the terms seen in the document are cleared before
+     * the next one. The terms of a document are given local ids in the order they are first seen
+     * in the document, which keeps the order of words with the same count the same as when
+     * searching the document on its own.
+     */
+    private final class BatchCollector implements TokenSink, WordCounts {
+        /** The ids of the terms counted for the whole batch */
+        private final WordDictionary dictionary;
 
-                    if (wordsRequired == numberOfFrequentWords) {
-                        break bucketLoop;
-                    }
+        /** The count of each term in the current document, indexed by term id */
+        private int[] documentCounts = new int[0];
 
-                    mostFrequentWords.add(sameFreqWord);
-                    wordsRequired++;
-                    i--;
+        /** The term id of each term of the current document, indexed by local id */
+        private int[] documentWords = new int[16];
+
+        /** Number of distinct terms in the current document */
+        private int documentSize = 0;
+
+        /** Number of words counted in the current document */
+        private long documentTotal = 0;
+
+        BatchCollector(SnowballStemmer stemmer) {
+            this.dictionary = new WordDictionary(new WordCounter(), stopWords, stemmer, stemCache);
+        }
+
+        @Override
+        public void onToken(char[] buffer, int length) {
+            int id = dictionary.idOf(buffer, 0, length);
+            if (id < 0) {
+                return;
+            }
+
+            dictionary.terms().add(id, 1);
+            if (id >= documentCounts.length) {
+                documentCounts = Arrays.copyOf(documentCounts, Math.max(id + 1, documentCounts.length << 1));
+            }
+
+            if (documentCounts[id]++ == 0) {
+                if (documentSize == documentWords.length) {
+                    documentWords = Arrays.copyOf(documentWords, documentSize << 1);
                 }
-            } else {
-                i--;
+                documentWords[documentSize++] = id;
+            }
+            documentTotal++;
+        }
+
+        /**
+         * This method selects the most frequent words of the current document and clears its
+         * counts for the next document
+         *
+         * @param numberOfFrequentWords, the number of most frequent words
+         * @param tieBreak,              the order of words with the same count
+         *
+         * @return the k frequent words of the document with their counts
+         */
+        TopKResult finishDocument(int numberOfFrequentWords, TieBreak tieBreak) {
+            int[] ids = new int[0];
+            if (numberOfFrequentWords > 0 && documentSize > 0) {
+                int[] localIds = new int[documentSize];
+                for (int localId = 0; localId < documentSize; localId++) {
+                    localIds[localId] = localId;
+                }
+
+                ids = heapSelect(this, localIds, documentSize, numberOfFrequentWords, tieBreak);
+            }
+
+            String[] words = new String[ids.length];
+            long[] counts = new long[ids.length];
+            for (int rank = 0; rank < ids.length; rank++) {
+                words[rank] = word(ids[rank]);
+                counts[rank] = count(ids[rank]);
+            }
+            TopKResult result = new TopKResult(words, counts, documentTotal, documentSize);
+
+            for (int localId = 0; localId < documentSize; localId++) {
+                documentCounts[documentWords[localId]] = 0;
             }
+            documentSize = 0;
+            documentTotal = 0;
+            return result;
+        }
+
+        @Override
+        public String word(int localId) {
+            return dictionary.terms().word(documentWords[localId]);
         }
 
-        return mostFrequentWords;
+        @Override
+        public int count(int localId) {
+            return documentCounts[documentWords[localId]];
+        }
     }
 
     /**
-     * This method computes the most frequently occurred words in the text using the following
-     * algorithm
-     * 
-     * Step 1: Clean the text. Remove extra spaces, special characters and make string case insensitive
-     * Step 2: Populate the map with count of all words and get the count of the most occurring word (O(n))
-     * Step 3: Sort the words in the map and keep them in their respective bucket where (bucket = freqCount) (O(n))
-     * Step 4: Then return the desired most frequent elements (O(k))
-     * 
-     * @param text, the blob of data
-     * @param numberOfFrequentWords, the number of most frequent words
-     * 
-     * @throws IllegalArgumentException, if text is null or empty
-     * @return a list, containing k frequent words where k = {@link Demo#numberOfFrequentWords} 
+     * The sink which counts the words of a search into an {@link OffHeapWordCounter}, see
+     * {@link Builder#offHeapVocabulary(boolean)}. The stop words are interned first and get the
+     * smallest ids, so they are known by their id and never counted. When stemming, every
+     * distinct word is stemmed once all words are counted and its count is added to the count of
+     * its stem in a second off heap counter, so the stems take no room on the heap either. The
+     * words are visited in the order they were first seen, which gives every word the same id
+     * order and count it would get on the heap. The most frequent words are selected with a heap
+     * of size k, since the frequency buckets would take heap memory for every distinct word.
      */
-    public static List<String> getMostFrequentWords(final String text, 
-            int numberOfFrequentWords) {
-        logger.info("Processing the list to find the most frequent occurring words");
-        validateInput(text);
+    private final class OffHeapCollector implements TokenSink {
+        private final OffHeapWordCounter counted = new OffHeapWordCounter();
 
-        if (numberOfFrequentWords <= 0) {
-            return Collections.<String>emptyList();
+        /** Number of stop words, they have the ids below it */
+        private final int stopWordCount;
+
+        OffHeapCollector() {
+            for (String stopWord : stopWords) {
+                counted.intern(stopWord);
+            }
+            this.stopWordCount = counted.size();
         }
 
-        String[] words = text.replaceAll("[^a-zA-Z ]", "").toLowerCase().split("\\s+");
-        Map<String, Integer> wordFrequency = new HashMap<String, Integer>();
+        @Override
+        public void onToken(char[] buffer, int length) {
+            int id = counted.intern(buffer, 0, length);
+            if (id >= stopWordCount) {
+                counted.add(id, 1);
+            }
+        }
 
-        List<String> mostFrequentWords = null;
+        /**
+         * This method completes the counting and selects the most frequent words
+         *
+         * @param numberOfFrequentWords, the number of most frequent words
+         * @return the k frequent words with their counts
+         */
+        TopKResult select(int numberOfFrequentWords) {
+            OffHeapWordCounter wordFrequency = counted;
+            SnowballStemmer stemmer = newStemmer();
+            if (stemmer != null) {
+                wordFrequency = new OffHeapWordCounter();
+                for (int id = stopWordCount; id < counted.size(); id++) {
+                    wordFrequency.add(wordFrequency.intern(stem(counted.word(id), stemmer)), counted.count(id));
+                }
+            }
 
-        int maxFreq = extractWordFrequency(wordFrequency, words);
-        if (maxFreq > 0) {
-            List<List<String>> freqBucket = bucketSortFrequency(wordFrequency, maxFreq);
-            mostFrequentWords = getMostFrequentWords(freqBucket, 
-                    maxFreq, numberOfFrequentWords);
+            if (numberOfFrequentWords <= 0 || wordFrequency.distinct() == 0) {
+                return TopKResult.empty(wordFrequency.total(), wordFrequency.distinct());
+            }
 
-            return mostFrequentWords;
-        } else {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Will return empty list as input is not in the correct format "
-                        + Arrays.asList(words));
+            // The buckets would take O(V) heap for the off-heap vocabulary, the heap only O(k)
+            return heapSelectFrequentWords(wordFrequency, numberOfFrequentWords, tieBreak);
+        }
+    }
+
+    /**
+     * The sink which counts the words of a search into a {@link SpillingWordCounter}, see
+     * {@link Builder#spillToDisk(long, Path)}. The stop words are skipped before they are
+     * counted, and when stemming every word is stemmed before it is counted, since the words
+     * spilled to disk cannot be stemmed or dropped once all words are counted. Closing the
+     * collector deletes the spilled words.
+     */
+    private final class SpillingCollector implements TokenSink, Closeable {
+        private final SpillingWordCounter counted = new SpillingWordCounter(memoryBudget, spillDirectory);
+
+        /** The stemmer owned by this collector, null if words are not stemmed */
+        private final SnowballStemmer stemmer = newStemmer();
+
+        @Override
+        public void onToken(char[] buffer, int length) {
+            if (stopWordTable.find(buffer, 0, length) >= 0) {
+                return;
+            }
+
+            try {
+                if (stemmer == null) {
+                    counted.increment(buffer, 0, length);
+                } else {
+                    counted.increment(stem(new String(buffer, 0, length), stemmer));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
+        }
+
+        /**
+         * This method merges the spilled words and selects the most frequent ones
+         *
+         * @param numberOfFrequentWords, the number of most frequent words
+         *
+         * @throws IOException, if the spilled words cannot be written or read
+         * @return the k frequent words with their counts
+         */
+        TopKResult select(int numberOfFrequentWords) throws IOException {
+            return counted.topK(numberOfFrequentWords, tieBreak);
+        }
 
-            return Collections.<String>emptyList(); 
+        @Override
+        public void close() throws IOException {
+            counted.close();
+        }
+    }
+
+    /**
+     * This method creates the sketch counting the words of an approximate search
+     *
+     * @param countingMode,          the approximate counting mode
+     * @param numberOfFrequentWords, the number of most frequent words the sketch has to find
+     * @return a new empty sketch
+     */
+    private FrequencySketch newSketch(CountingMode countingMode, int numberOfFrequentWords) {
+        switch (countingMode) {
+        case SPACE_SAVING:
+            return new SpaceSavingSketch(spaceSavingCounters);
+        case COUNT_MIN_SKETCH:
+            return new CountMinSketch(countMinWidth, countMinDepth, numberOfFrequentWords);
+        default:
+            throw new IllegalArgumentException("Counting mode " + countingMode + " is not approximate");
+        }
+    }
+
+    /**
+     * @return true, if the distinct words are stemmed once all words are counted
+     */
+    private boolean stemsAfterCounting() {
+        return usesStemmer() && stemmingStrategy == StemmingStrategy.AFTER_COUNTING;
+    }
+
+    /**
+     * This method completes the counting once all words are counted. Without a stemmer it drops
+     * the stop words. When stemming after counting, every distinct word which is not a stop word
+     * is stemmed once and its count is added to the count of its stem. The words are visited in
+     * the order they were first seen, so every stem gets the same id and count it would get when
+     * stemming every word, and the result is identical.
+     *
+     * @param counted,       The counter the words were counted into
+     * @param wordFrequency, The counter of words and their respective frequency. The same as
+     *                       counted unless stemming after counting
+     * @param stemmer,       The stemmer owned by the caller, only used when stemming after counting
+     *
+     * @return the count of the most frequently occurring word
+     */
+    private int finishCounting(WordCounter counted, WordCounter wordFrequency, SnowballStemmer stemmer) {
+        if (!usesStemmer()) {
+            for (String stopWord : stopWords) {
+                wordFrequency.reset(stopWord);
+            }
+        } else if (stemsAfterCounting()) {
+            for (int id = 0; id < counted.size(); id++) {
+                String word = counted.word(id);
+                if (!stopWords.contains(word)) {
+                    wordFrequency.add(stem(word, stemmer), counted.count(id));
+                }
+            }
+        }
+
+        return wordFrequency.maxCount();
+    }
+
+    /**
+     * This method completes the counting of the merged partitions of a parallel search
+     *
+     * @param counted, The counter the partitions were counted into
+     * @return the counter holding the frequency of every word
+     */
+    private WordCounter finishCounting(WordCounter counted) {
+        if (stemsAfterCounting()) {
+            WordCounter wordFrequency = new WordCounter(counted.size());
+            finishCounting(counted, wordFrequency, newStemmer());
+            return wordFrequency;
+        }
+
+        finishCounting(counted, counted, null);
+        return counted;
+    }
+
+    /**
+     * This method creates a new stemmer for this searcher. A stemmer keeps the word being stemmed
+     * as state, so it is never shared. Every search, and every thread of a parallel search, stems
+     * with its own instance, which lets any number of searches run at the same time without a lock.
+     *
+     * @return a new stemmer, null if words are not stemmed
+     */
+    private SnowballStemmer newStemmer() {
+        if (stemmerClass == null) {
+            return null;
+        }
+
+        try {
+            return stemmerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create the stemmer " + stemmerClass.getName(), ex);
+        }
+    }
+
+    /**
+     * This method counts the frequency of every word of the text in parallel. See
+     * {@link TextCountTask}. The stop words are dropped once the partial counts are merged.
+     *
+     * @param text,      The text to count the words of
+     * @param pool,      The pool running the partitions
+     * @param threshold, The largest number of characters counted by a single task
+     *
+     * @return the counter holding the frequency of every word
+     */
+    WordCounter countInParallel(final String text, ForkJoinPool pool, int threshold) {
+        WordCounter counted = pool.invoke(new TextCountTask(text, 0, text.length(), threshold));
+        return finishCounting(counted);
+    }
+
+    /**
+     * This method counts the frequency of every word of the file in parallel. See
+     * {@link FileCountTask}. The stop words are dropped once the partial counts are merged.
+     *
+     * @param path,      The ASCII or UTF-8 file to count the words of
+     * @param pool,      The pool running the partitions
+     * @param threshold, The largest number of bytes counted by a single task
+     *
+     * @throws IOException, if the file cannot be read
+     * @return the counter holding the frequency of every word
+     */
+    WordCounter countInParallel(final Path path, ForkJoinPool pool, long threshold)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WordCounter counted = pool.invoke(new FileCountTask(channel, 0, channel.size(),
+                    Math.min(threshold, MAP_SEGMENT_SIZE)));
+            return finishCounting(counted);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * The task counting a range of the text. A range larger than the threshold is split in two
+     * at the first whitespace after its middle, so no word is ever cut, and both halves are
+     * counted in parallel, each into its own counter with its own stemmer. The counts of the
+     * right half are then added to the counts of the left half. Merging in the order of the text
+     * gives every word the same id it would get when counting sequentially, so the result is
+     * identical to the sequential one.
+     */
+    private final class TextCountTask extends RecursiveTask<WordCounter> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        TextCountTask(String text, int start, int end, int threshold) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected WordCounter compute() {
+            int middle = end;
+            if (end - start > threshold) {
+                middle = start + (end - start) / 2;
+                while (middle < end && !WordTokenizer.isWhitespace(text.charAt(middle))) {
+                    middle++;
+                }
+            }
+
+            if (middle == end) {
+                FrequencyCollector collector = new FrequencyCollector(new WordCounter(), newStemmer());
+                new WordTokenizer(collector).tokenize(text, start, end);
+                return collector.counted;
+            }
+
+            TextCountTask right = new TextCountTask(text, middle, end, threshold);
+            right.fork();
+            WordCounter wordFrequency = new TextCountTask(text, start, middle, threshold).compute();
+            wordFrequency.addAll(right.join());
+            return wordFrequency;
+        }
+    }
+
+    /**
+     * The task counting a range of bytes of a file. It splits the file like {@link TextCountTask}
+     * splits a text, and each range small enough is memory mapped and counted on its own.
+     */
+    private final class FileCountTask extends RecursiveTask<WordCounter> {
+        private static final long serialVersionUID = 1L;
+
+        /** Number of bytes read at a time while looking for a whitespace to split at */
+        private static final int SCAN_SIZE = 256;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long threshold;
+
+        FileCountTask(FileChannel channel, long start, long end, long threshold) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected WordCounter compute() {
+            try {
+                long middle = end - start <= threshold ? end : nextWhitespace(start + (end - start) / 2);
+                if (middle == end) {
+                    FrequencyCollector collector = new FrequencyCollector(new WordCounter(), newStemmer());
+                    WordTokenizer tokenizer = new WordTokenizer(collector);
+                    for (long position = start; position < end; position += MAP_SEGMENT_SIZE) {
+                        long length = Math.min(MAP_SEGMENT_SIZE, end - position);
+                        tokenizer.feed(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                    }
+                    tokenizer.finish();
+                    return collector.counted;
+                }
+
+                FileCountTask right = new FileCountTask(channel, middle, end, threshold);
+                right.fork();
+                WordCounter wordFrequency = new FileCountTask(channel, start, middle, threshold).compute();
+                wordFrequency.addAll(right.join());
+                return wordFrequency;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private long nextWhitespace(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+            while (position < end) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+
+                for (int i = 0; i < read && position < end; i++, position++) {
+                    if (WordTokenizer.isWhitespace(buffer.get(i) & 0xFF)) {
+                        return position;
+                    }
+                }
+            }
+
+            return end;
+        }
+    }
+
+    /**
+     * This method sorts the words by frequencies using a popular sorting technique 
+     * called bucket sort though we do not actually sort it and use a variation of the
+     * technique, a counting sort. We get the maxFrequency from the counter, count the words
+     * of every frequency and lay the buckets out one after the other in a single array of
+     * word ids, see {@link FrequencyBuckets}.
+     * 
+     * This method runs in O(V + maxFreq) where V is the number of distinct words, every word
+     * is added to its bucket in constant time. Space is also O(V + maxFreq) which is the extra
+     * arrays we needed to store(buckets)
+     * See <a href="https://en.wikipedia.org/wiki/Counting_sort</a>
+     * 
+     * @param wordFrequency, The counter of words and their respective frequency.
+     *                       can never be empty
+     * @param maxFreq,       Count of the most frequently seen word in the text.
+     *                       can never be less than 1
+     * 
+     * @return the word ids sorted in order of frequencies with the lowest frequency
+     *         words occurring first
+     */
+    static FrequencyBuckets bucketSortFrequency(Vocabulary wordFrequency,
+            int maxFreq) {
+        // Checked once by the public methods, the asserts only run in tests
+        assert wordFrequency.size() > 0;
+        assert maxFreq > 0;
+
+        if (logger.isInfoEnabled())
+            logger.info("Sorting the words to their correct bucket locations based on frequency");
+
+        return FrequencyBuckets.sort(wordFrequency, maxFreq);
+    }
+
+    /**
+     * This method just scans the buckets from the end to retrieve the most frequently
+     * occurring words. The ids in the buckets are already in first seen order, which is also
+     * the order of the word ids. To order words with the same count alphabetically, the words of
+     * every frequency that makes it into the result are offered to a heap of size k, which picks
+     * the alphabetically first words of the last frequency when not all of them fit.
+     *
+     * @param freqBucket,            The word ids sorted in order of frequencies with the lowest frequency
+     *                               words occurring first
+     * @param wordFrequency,         The counter the word ids belong to
+     * @param numberOfFrequentWords, Required count of most frequent words
+     *                               can never be less than 1
+     * @param tieBreak,              The order of words with the same count
+     *
+     * @return the {@link Demo#numberOfFrequentWords} with their counts
+     */
+    static TopKResult getMostFrequentWords(FrequencyBuckets freqBucket,
+            Vocabulary wordFrequency, int numberOfFrequentWords, TieBreak tieBreak) {
+        assert numberOfFrequentWords > 0;
+
+        int wordsRequired = Math.min(numberOfFrequentWords, freqBucket.size());
+        if (tieBreak == TieBreak.LEXICOGRAPHIC && wordsRequired > 0) {
+            int lastFrequency = wordFrequency.count(freqBucket.idByRank(wordsRequired - 1));
+            int candidates = freqBucket.sizeAtLeast(lastFrequency);
+
+            int[] heap = new int[wordsRequired];
+            int heapSize = 0;
+            for (int rank = 0; rank < candidates; rank++) {
+                heapSize = offer(wordFrequency, tieBreak, heap, heapSize, freqBucket.idByRank(rank));
+            }
+
+            return toResult(wordFrequency, drain(wordFrequency, tieBreak, heap, heapSize));
+        }
+
+        int[] mostFrequentWords = new int[wordsRequired];
+        for (int rank = 0; rank < wordsRequired; rank++) {
+            mostFrequentWords[rank] = freqBucket.idByRank(rank);
+        }
+
+        return toResult(wordFrequency, mostFrequentWords);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text using the following
+     * algorithm
+     * 
+     * Step 1: Tokenize the text in a single pass. Drop special characters and make words case insensitive
+     * Step 2: Populate the counter with count of all words as they are found and get the count of the most
+     *         occurring word (O(n))
+     * Step 3: Sort the counted words and keep them in their respective bucket where (bucket = freqCount) (O(n))
+     * Step 4: Then return the desired most frequent elements (O(k))
+     * 
+     * The words are returned together with their counts, the number of words counted and the
+     * number of distinct words, all found while counting. The text is counted even if no words
+     * are asked for, so the totals are always filled in.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * 
+     * @throws IllegalArgumentException, if text is null or empty
+     * @throws UncheckedIOException, if the words are spilled to disk and cannot be written or read
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final String text,
+            int numberOfFrequentWords) {
+        logger.info("Processing the list to find the most frequent occurring words");
+        validateInput(text);
+
+        if (memoryBudget > 0) {
+            try (SpillingCollector collector = new SpillingCollector()) {
+                new WordTokenizer(collector).tokenize(text);
+                return collector.select(numberOfFrequentWords);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        if (offHeapVocabulary) {
+            OffHeapCollector collector = new OffHeapCollector();
+            new WordTokenizer(collector).tokenize(text);
+            return collector.select(numberOfFrequentWords);
+        }
+
+        WordCounter wordFrequency = new WordCounter();
+        int maxFreq = extractWordFrequency(wordFrequency, text);
+        return selectMostFrequentWords(wordFrequency, maxFreq, numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text read from the given
+     * reader. It works like {@link #findTopK(String, int)} but the text is tokenized and counted
+     * chunk by chunk as it is read, so the whole text never has to be held in memory. The reader
+     * is not closed.
+     *
+     * @param reader, the reader to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final Reader reader,
+            int numberOfFrequentWords) throws IOException {
+        logger.info("Processing the reader to find the most frequent occurring words");
+        validateInput(reader);
+
+        if (memoryBudget > 0) {
+            try (SpillingCollector collector = new SpillingCollector()) {
+                tokenize(new WordTokenizer(collector), reader);
+                return collector.select(numberOfFrequentWords);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        if (offHeapVocabulary) {
+            OffHeapCollector collector = new OffHeapCollector();
+            tokenize(new WordTokenizer(collector), reader);
+            return collector.select(numberOfFrequentWords);
+        }
+
+        WordCounter wordFrequency = new WordCounter();
+        int maxFreq = extractWordFrequency(wordFrequency, reader);
+        return selectMostFrequentWords(wordFrequency, maxFreq, numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the UTF-8 text read from the
+     * given stream. See {@link #findTopK(Reader, int)}. The stream is not closed.
+     *
+     * @param inputStream, the stream to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if inputStream is null
+     * @throws IOException, if the stream cannot be read
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final InputStream inputStream,
+            int numberOfFrequentWords) throws IOException {
+        validateInput(inputStream);
+        return findTopK(new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+                numberOfFrequentWords);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the ASCII or UTF-8 file at the
+     * given path. The file is memory mapped and tokenized directly from the mapped bytes, so
+     * neither the bytes nor a decoded copy of the text are held on the heap. Files larger than
+     * 2GB are mapped in several segments.
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final Path path,
+            int numberOfFrequentWords) throws IOException {
+        logger.info("Processing the file " + path + " to find the most frequent occurring words");
+        validateInput(path);
+
+        if (memoryBudget > 0) {
+            try (SpillingCollector collector = new SpillingCollector()) {
+                tokenize(new WordTokenizer(collector), path, MAP_SEGMENT_SIZE);
+                return collector.select(numberOfFrequentWords);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        if (offHeapVocabulary) {
+            OffHeapCollector collector = new OffHeapCollector();
+            tokenize(new WordTokenizer(collector), path, MAP_SEGMENT_SIZE);
+            return collector.select(numberOfFrequentWords);
+        }
+
+        WordCounter wordFrequency = new WordCounter();
+        int maxFreq = extractWordFrequency(wordFrequency, path, MAP_SEGMENT_SIZE);
+        return selectMostFrequentWords(wordFrequency, maxFreq, numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text like
+     * {@link #findTopK(String, int)} but counts the words on the given pool. The text is split
+     * at whitespace into partitions which are counted in parallel into their own counters, and
+     * the counters are merged before the words are sorted into buckets. The result is identical
+     * to the sequential one.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the partitions, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if text is null or empty or pool is null
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final String text,
+            int numberOfFrequentWords, ForkJoinPool pool) {
+        logger.info("Processing the list in parallel to find the most frequent occurring words");
+        validateInput(text);
+        validateInput(pool);
+
+        WordCounter wordFrequency = countInParallel(text, pool, PARALLEL_TEXT_THRESHOLD);
+        return selectMostFrequentWords(wordFrequency, wordFrequency.maxCount(), numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the file like
+     * {@link #findTopK(Path, int)} but counts the words on the given pool. The file is split at
+     * whitespace into ranges which are memory mapped and counted in parallel. The result is
+     * identical to the sequential one.
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the ranges, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if path or pool is null
+     * @throws IOException, if the file cannot be read
+     * @return the k frequent words with their counts
+     */
+    public TopKResult findTopK(final Path path,
+            int numberOfFrequentWords, ForkJoinPool pool) throws IOException {
+        logger.info("Processing the file " + path + " in parallel to find the most frequent occurring words");
+        validateInput(path);
+        validateInput(pool);
+
+        WordCounter wordFrequency = countInParallel(path, pool, PARALLEL_FILE_THRESHOLD);
+        return selectMostFrequentWords(wordFrequency, wordFrequency.maxCount(), numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text counted in the given
+     * mode. {@link CountingMode#EXACT} is the same as {@link #findTopK(String, int)}. The
+     * approximate modes count the words as they are found in a sketch of fixed size, so the
+     * memory of the search does not grow with the number of distinct words, and the result
+     * holds the error of every count.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param countingMode, how the words are counted
+     *
+     * @throws IllegalArgumentException, if text is null or empty or countingMode is null
+     * @return the k frequent words with their counts, estimated unless exact
+     */
+    public TopKResult findTopK(final String text,
+            int numberOfFrequentWords, CountingMode countingMode) {
+        validateInput(countingMode);
+        if (countingMode == CountingMode.EXACT) {
+            return findTopK(text, numberOfFrequentWords);
+        }
+
+        logger.info("Processing the list in " + countingMode + " mode to find the most frequent occurring words");
+        validateInput(text);
+
+        FrequencySketch sketch = newSketch(countingMode, numberOfFrequentWords);
+        new WordTokenizer(new SketchCollector(sketch, newStemmer())).tokenize(text);
+        return sketch.topK(numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text read from the given
+     * reader counted in the given mode. See {@link #findTopK(String, int, CountingMode)}. The
+     * reader is not closed.
+     *
+     * @param reader, the reader to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param countingMode, how the words are counted
+     *
+     * @throws IllegalArgumentException, if reader or countingMode is null
+     * @throws IOException, if the reader cannot be read
+     * @return the k frequent words with their counts, estimated unless exact
+     */
+    public TopKResult findTopK(final Reader reader,
+            int numberOfFrequentWords, CountingMode countingMode) throws IOException {
+        validateInput(countingMode);
+        if (countingMode == CountingMode.EXACT) {
+            return findTopK(reader, numberOfFrequentWords);
+        }
+
+        logger.info("Processing the reader in " + countingMode + " mode to find the most frequent occurring words");
+        validateInput(reader);
+
+        FrequencySketch sketch = newSketch(countingMode, numberOfFrequentWords);
+        tokenize(new WordTokenizer(new SketchCollector(sketch, newStemmer())), reader);
+        return sketch.topK(numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the ASCII or UTF-8 file at the
+     * given path counted in the given mode. See {@link #findTopK(String, int, CountingMode)}.
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param countingMode, how the words are counted
+     *
+     * @throws IllegalArgumentException, if path or countingMode is null
+     * @throws IOException, if the file cannot be read
+     * @return the k frequent words with their counts, estimated unless exact
+     */
+    public TopKResult findTopK(final Path path,
+            int numberOfFrequentWords, CountingMode countingMode) throws IOException {
+        validateInput(countingMode);
+        if (countingMode == CountingMode.EXACT) {
+            return findTopK(path, numberOfFrequentWords);
+        }
+
+        logger.info("Processing the file " + path + " in " + countingMode + " mode to find the most frequent occurring words");
+        validateInput(path);
+
+        FrequencySketch sketch = newSketch(countingMode, numberOfFrequentWords);
+        tokenize(new WordTokenizer(new SketchCollector(sketch, newStemmer())), path, MAP_SEGMENT_SIZE);
+        return sketch.topK(numberOfFrequentWords, tieBreak);
+    }
+
+    /**
+     * This method computes the most frequently occurred words of every document of a batch and
+     * of all documents together, in a single pass over the documents. Each document result is
+     * the same as {@link #findTopK(String, int)} of the document, and the corpus result is the
+     * same as searching all documents joined by whitespace. The documents share one vocabulary,
+     * so every distinct word is hashed, turned into a string and stemmed only once per batch
+     * however many documents it is in, and the batch is validated and logged once. This suits
+     * many short documents, where searching each on its own mostly costs setting up the search.
+     *
+     * @param documents, the documents, an empty document has an empty result
+     * @param numberOfFrequentWords, the number of most frequent words of each document and of
+     *                               the corpus, none are returned if less than 1
+     *
+     * @throws IllegalArgumentException, if documents is null or holds a null document
+     * @return the k frequent words of each document and of the corpus with their counts
+     */
+    public BatchTopKResult findTopK(final Collection<String> documents,
+            int numberOfFrequentWords) {
+        logger.info("Processing a batch of documents to find the most frequent occurring words");
+        validateInput(documents);
+
+        BatchCollector collector = new BatchCollector(newStemmer());
+        WordTokenizer tokenizer = new WordTokenizer(collector);
+        TopKResult[] results = new TopKResult[documents.size()];
+        int index = 0;
+        for (String document : documents) {
+            if (document == null) {
+                throw new IllegalArgumentException("Valid documents required to find the most frequent words");
+            }
+
+            tokenizer.tokenize(document);
+            results[index++] = collector.finishDocument(numberOfFrequentWords, tieBreak);
+        }
+
+        WordCounter vocabulary = collector.dictionary.terms();
+        TopKResult corpus = selectMostFrequentWords(vocabulary, vocabulary.maxCount(), numberOfFrequentWords, tieBreak);
+        return new BatchTopKResult(results, corpus);
+    }
+
+    /**
+     * This method counts every word of the text and keeps the counts in a
+     * {@link FrequencySnapshot}, which can be written to a file, loaded back without counting
+     * the text again and merged with the snapshot of new text. The words are counted like
+     * {@link #findTopK(String, int)}, stop words left out and stemmed if the searcher stems.
+     *
+     * @param text, the blob of data
+     *
+     * @throws IllegalArgumentException, if text is null or empty
+     * @return the snapshot of the counts of every word
+     */
+    public FrequencySnapshot snapshot(final String text) {
+        validateInput(text);
+
+        WordCounter wordFrequency = new WordCounter();
+        extractWordFrequency(wordFrequency, text);
+        return FrequencySnapshot.of(wordFrequency);
+    }
+
+    /**
+     * This method counts every word of the text read from the given reader and keeps the counts
+     * in a {@link FrequencySnapshot}. See {@link #snapshot(String)}. The reader is not closed.
+     *
+     * @param reader, the reader to read the text from
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     * @return the snapshot of the counts of every word
+     */
+    public FrequencySnapshot snapshot(final Reader reader) throws IOException {
+        validateInput(reader);
+
+        WordCounter wordFrequency = new WordCounter();
+        extractWordFrequency(wordFrequency, reader);
+        return FrequencySnapshot.of(wordFrequency);
+    }
+
+    /**
+     * This method counts every word of the ASCII or UTF-8 file at the given path and keeps the
+     * counts in a {@link FrequencySnapshot}. See {@link #snapshot(String)}.
+     *
+     * @param path, the file to read the text from
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read
+     * @return the snapshot of the counts of every word
+     */
+    public FrequencySnapshot snapshot(final Path path) throws IOException {
+        validateInput(path);
+
+        WordCounter wordFrequency = new WordCounter();
+        extractWordFrequency(wordFrequency, path, MAP_SEGMENT_SIZE);
+        return FrequencySnapshot.of(wordFrequency);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text.
+     * See {@link #findTopK(String, int)}.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if text is null or empty
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final String text,
+            int numberOfFrequentWords) {
+        validateInput(text);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(text, numberOfFrequentWords).words());
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text read from the given
+     * reader. See {@link #findTopK(Reader, int)}. The reader is not closed.
+     *
+     * @param reader, the reader to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final Reader reader,
+            int numberOfFrequentWords) throws IOException {
+        validateInput(reader);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(reader, numberOfFrequentWords).words());
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the UTF-8 text read from the
+     * given stream. See {@link #findTopK(InputStream, int)}. The stream is not closed.
+     *
+     * @param inputStream, the stream to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if inputStream is null
+     * @throws IOException, if the stream cannot be read
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final InputStream inputStream,
+            int numberOfFrequentWords) throws IOException {
+        validateInput(inputStream);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(inputStream, numberOfFrequentWords).words());
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the ASCII or UTF-8 file at the
+     * given path. See {@link #findTopK(Path, int)}.
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final Path path,
+            int numberOfFrequentWords) throws IOException {
+        validateInput(path);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(path, numberOfFrequentWords).words());
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text, counting the words
+     * on the given pool. See {@link #findTopK(String, int, ForkJoinPool)}.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the partitions, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if text is null or empty or pool is null
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final String text,
+            int numberOfFrequentWords, ForkJoinPool pool) {
+        validateInput(text);
+        validateInput(pool);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(text, numberOfFrequentWords, pool).words());
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the file, counting the words
+     * on the given pool. See {@link #findTopK(Path, int, ForkJoinPool)}.
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the ranges, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if path or pool is null
+     * @throws IOException, if the file cannot be read
+     * @return a list, containing k frequent words
+     */
+    public List<String> findMostFrequentWords(final Path path,
+            int numberOfFrequentWords, ForkJoinPool pool) throws IOException {
+        validateInput(path);
+        validateInput(pool);
+        if (numberOfFrequentWords <= 0) {
+            return Collections.<String>emptyList();
+        }
+
+        return new ArrayList<String>(findTopK(path, numberOfFrequentWords, pool).words());
+    }
+
+    /**
+     * This method computes the default number of most frequently occurred words in the text.
+     * See {@link #findMostFrequentWords(String, int)}.
+     *
+     * @param text, the blob of data
+     *
+     * @throws IllegalArgumentException, if text is null or empty
+     * @return a list, containing the most frequent words
+     */
+    public List<String> findMostFrequentWords(final String text) {
+        return findMostFrequentWords(text, numberOfFrequentWords);
+    }
+
+    /**
+     * This method computes the default number of most frequently occurred words in the text read
+     * from the given reader. See {@link #findMostFrequentWords(Reader, int)}.
+     *
+     * @param reader, the reader to read the text from
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     * @return a list, containing the most frequent words
+     */
+    public List<String> findMostFrequentWords(final Reader reader) throws IOException {
+        return findMostFrequentWords(reader, numberOfFrequentWords);
+    }
+
+    /**
+     * This method computes the default number of most frequently occurred words in the file at
+     * the given path. See {@link #findMostFrequentWords(Path, int)}.
+     *
+     * @param path, the file to read the text from
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read
+     * @return a list, containing the most frequent words
+     */
+    public List<String> findMostFrequentWords(final Path path) throws IOException {
+        return findMostFrequentWords(path, numberOfFrequentWords);
+    }
+
+    /**
+     * This method computes the most frequently occurred words in the text with the stop words and
+     * stemmer set for the static methods. See {@link #findMostFrequentWords(String, int)}.
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * 
+     * @throws IllegalArgumentException, if text is null or empty
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final String text, 
+            int numberOfFrequentWords) {
+        return defaultSearcher.findMostFrequentWords(text, numberOfFrequentWords);
+    }
+
+    /**
+     * See {@link #findMostFrequentWords(Reader, int)}
+     *
+     * @param reader, the reader to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final Reader reader,
+            int numberOfFrequentWords) throws IOException {
+        return defaultSearcher.findMostFrequentWords(reader, numberOfFrequentWords);
+    }
+
+    /**
+     * See {@link #findMostFrequentWords(InputStream, int)}
+     *
+     * @param inputStream, the stream to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if inputStream is null
+     * @throws IOException, if the stream cannot be read
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final InputStream inputStream,
+            int numberOfFrequentWords) throws IOException {
+        return defaultSearcher.findMostFrequentWords(inputStream, numberOfFrequentWords);
+    }
+
+    /**
+     * See {@link #findMostFrequentWords(Path, int)}
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @throws IllegalArgumentException, if path is null
+     * @throws IOException, if the file cannot be read
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final Path path,
+            int numberOfFrequentWords) throws IOException {
+        return defaultSearcher.findMostFrequentWords(path, numberOfFrequentWords);
+    }
+
+    /**
+     * See {@link #findMostFrequentWords(String, int, ForkJoinPool)}
+     *
+     * @param text, the blob of data
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the partitions, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if text is null or empty or pool is null
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final String text,
+            int numberOfFrequentWords, ForkJoinPool pool) {
+        return defaultSearcher.findMostFrequentWords(text, numberOfFrequentWords, pool);
+    }
+
+    /**
+     * See {@link #findMostFrequentWords(Path, int, ForkJoinPool)}
+     *
+     * @param path, the file to read the text from
+     * @param numberOfFrequentWords, the number of most frequent words
+     * @param pool, the pool counting the ranges, e.g. {@link ForkJoinPool#commonPool()}
+     *
+     * @throws IllegalArgumentException, if path or pool is null
+     * @throws IOException, if the file cannot be read
+     * @return a list, containing k frequent words
+     */
+    public static List<String> getMostFrequentWords(final Path path,
+            int numberOfFrequentWords, ForkJoinPool pool) throws IOException {
+        return defaultSearcher.findMostFrequentWords(path, numberOfFrequentWords, pool);
+    }
+
+    /**
+     * This method selects the most frequent words with a min heap holding at most k word ids
+     * instead of sorting every word into buckets. The root of the heap is the least frequent of
+     * the words kept so far and is replaced whenever a more frequent word comes along. It runs in
+     * O(V log k) time with O(k) extra space where V is the number of distinct words, so unlike
+     * the buckets it does not depend on the count of the most frequent word.
+     *
+     * Words with the same count are ordered by the tie break while they are compared in the
+     * heap, which gives the same order as the buckets.
+     *
+     * @param wordFrequency,         The counter of words and their respective frequency.
+     * @param numberOfFrequentWords, Required count of most frequent words
+     *                               can never be less than 1
+     * @param tieBreak,              The order of words with the same count
+     *
+     * @return the words with their counts, most frequent first
+     */
+    static TopKResult heapSelectFrequentWords(Vocabulary wordFrequency,
+            int numberOfFrequentWords, TieBreak tieBreak) {
+        int[] heap = new int[Math.min(numberOfFrequentWords, wordFrequency.size())];
+        int heapSize = 0;
+
+        for (int id = 0; id < wordFrequency.size(); id++) {
+            if (wordFrequency.count(id) != 0) {
+                heapSize = offer(wordFrequency, tieBreak, heap, heapSize, id);
+            }
+        }
+
+        return toResult(wordFrequency, drain(wordFrequency, tieBreak, heap, heapSize));
+    }
+
+    /**
+     * This method selects the most frequent of the given candidate words with a min heap like
+     * {@link #heapSelectFrequentWords(Vocabulary, int, TieBreak)}, without looking at any other
+     * word of the counter
+     *
+     * @param wordFrequency,         The counter of words and their respective frequency.
+     * @param candidates,            the ids of the candidate words, in any order
+     * @param size,                  the number of candidates
+     * @param numberOfFrequentWords, Required count of most frequent words
+     *                               can never be less than 1
+     * @param tieBreak,              The order of words with the same count
+     *
+     * @return the words with their counts, most frequent first
+     */
+    static TopKResult heapSelectFrequentWords(Vocabulary wordFrequency, int[] candidates,
+            int size, int numberOfFrequentWords, TieBreak tieBreak) {
+        return toResult(wordFrequency, heapSelect(wordFrequency, candidates, size, numberOfFrequentWords, tieBreak));
+    }
+
+    /**
+     * This method selects the most frequent of the given candidate words of any counts, e.g. the
+     * counters of a sketch, with a min heap of size k
+     *
+     * @param counts,                the counts of the words
+     * @param candidates,            the ids of the candidate words, in any order
+     * @param size,                  the number of candidates
+     * @param numberOfFrequentWords, Required count of most frequent words
+     *                               can never be less than 1
+     * @param tieBreak,              The order of words with the same count
+     *
+     * @return the ids of the selected words, most frequent first
+     */
+    static int[] heapSelect(WordCounts counts, int[] candidates, int size,
+            int numberOfFrequentWords, TieBreak tieBreak) {
+        int[] heap = new int[Math.min(numberOfFrequentWords, size)];
+        int heapSize = 0;
+        for (int i = 0; i < size; i++) {
+            heapSize = offer(counts, tieBreak, heap, heapSize, candidates[i]);
+        }
+
+        return drain(counts, tieBreak, heap, heapSize);
+    }
+
+    /**
+     * This method adds the word to the heap if the heap is not full yet, or replaces the root
+     * with it if the word ranks above the root
+     *
+     * @return the new size of the heap
+     */
+    private static int offer(WordCounts counts, TieBreak tieBreak, int[] heap,
+            int heapSize, int id) {
+        if (heapSize < heap.length) {
+            heap[heapSize] = id;
+            siftUp(counts, tieBreak, heap, heapSize);
+            return heapSize + 1;
+        }
+
+        if (ranksAbove(counts, tieBreak, id, heap[0])) {
+            heap[0] = id;
+            siftDown(counts, tieBreak, heap, heapSize, 0);
+        }
+
+        return heapSize;
+    }
+
+    /**
+     * This method empties the heap from the least frequent word, filling the result from the back
+     *
+     * @return the ids of the words, most frequent first
+     */
+    private static int[] drain(WordCounts counts, TieBreak tieBreak, int[] heap, int heapSize) {
+        int[] ids = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ids[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(counts, tieBreak, heap, i, 0);
+        }
+
+        return ids;
+    }
+
+    /**
+     * This method resolves the selected word ids to their words and counts. Only the k selected
+     * words are read back from the counter.
+     *
+     * @param wordFrequency, The counter the word ids belong to
+     * @param ids,           the ids of the selected words, most frequent first
+     *
+     * @return the words with their counts
+     */
+    private static TopKResult toResult(Vocabulary wordFrequency, int[] ids) {
+        String[] words = new String[ids.length];
+        long[] counts = new long[ids.length];
+        for (int rank = 0; rank < ids.length; rank++) {
+            words[rank] = wordFrequency.word(ids[rank]);
+            counts[rank] = wordFrequency.count(ids[rank]);
+        }
+
+        return new TopKResult(words, counts, wordFrequency.total(), wordFrequency.distinct());
+    }
+
+    /**
+     * @return true, if word a should come before word b in the result
+     */
+    private static boolean ranksAbove(WordCounts counts, TieBreak tieBreak, int a, int b) {
+        int countA = counts.count(a);
+        int countB = counts.count(b);
+        if (countA != countB) {
+            return countA > countB;
+        }
+
+        if (tieBreak == TieBreak.LEXICOGRAPHIC) {
+            return counts.word(a).compareTo(counts.word(b)) < 0;
+        }
+
+        // First seen words have the lowest ids, so both other orders compare the ids
+        return a < b;
+    }
+
+    private static void siftUp(WordCounts counts, TieBreak tieBreak, int[] heap, int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(counts, tieBreak, heap[parent], id)) {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            index = parent;
+        }
+
+        heap[index] = id;
+    }
+
+    private static void siftDown(WordCounts counts, TieBreak tieBreak, int[] heap,
+            int heapSize, int index) {
+        int id = heap[index];
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            if (child + 1 < heapSize && ranksAbove(counts, tieBreak, heap[child], heap[child + 1])) {
+                child++;
+            }
+
+            if (!ranksAbove(counts, tieBreak, id, heap[child])) {
+                break;
+            }
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = id;
+    }
+
+    /**
+     * This method runs the last two steps common to every source of text. It sorts the counted
+     * words into their buckets and returns the desired most frequent ones. When the count of the
+     * most frequent word is larger than the number of distinct words a bucket per frequency
+     * would be mostly empty, e.g. one word seen ten million times needs ten million buckets, so
+     * a few words are selected with a heap of size k instead and more words from sparse buckets,
+     * which only have a bucket per frequency that occurs.
+     *
+     * The public methods validate their input once before counting, so none of the phases
+     * called from here check their arguments again outside of tests.
+     *
+     * @param wordFrequency, The counter of words and their respective frequency.
+     * @param maxFreq, Count of the most frequently seen word in the text.
+     * @param numberOfFrequentWords, the number of most frequent words, none are selected if less than 1
+     * @param tieBreak, the order of words with the same count
+     *
+     * @return the k frequent words with their counts, no words if no words were counted
+     */
+    static TopKResult selectMostFrequentWords(Vocabulary wordFrequency,
+            int maxFreq, int numberOfFrequentWords, TieBreak tieBreak) {
+        if (maxFreq <= 0 || numberOfFrequentWords <= 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Will return no words as the text has no words to count or none were asked for");
+            }
+
+            return TopKResult.empty(wordFrequency.total(), wordFrequency.distinct());
+        } else if (maxFreq > wordFrequency.size()) {
+            if (numberOfFrequentWords <= HEAP_SELECTION_LIMIT) {
+                return heapSelectFrequentWords(wordFrequency, numberOfFrequentWords, tieBreak);
+            }
+
+            FrequencyBuckets freqBucket = FrequencyBuckets.sortSparse(wordFrequency);
+            return getMostFrequentWords(freqBucket, wordFrequency, numberOfFrequentWords, tieBreak);
+        } else {
+            FrequencyBuckets freqBucket = bucketSortFrequency(wordFrequency, maxFreq);
+            return getMostFrequentWords(freqBucket, wordFrequency, numberOfFrequentWords, tieBreak);
         }
     }
 
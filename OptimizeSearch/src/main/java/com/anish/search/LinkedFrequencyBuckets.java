@@ -0,0 +1,230 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code LinkedFrequencyBuckets} keeps word ids sorted by their count while the counts
+ * change, the idea behind {@code bucketSortFrequency} made incremental. Every bucket holds the
+ * words with the same count in a linked list, and the buckets are linked from the smallest to
+ * the largest count. When the count of a word changes it moves to the bucket of its new count,
+ * which is at most as many buckets away as the count changed, so counting a word costs O(1)
+ * however many words were counted before. Only buckets holding a word exist.
+ *
+ * <p>All links are indexes into primitive arrays, no object is created per word or per bucket.
+ * Buckets left empty are kept in a free list and reused. The counts themselves are owned by the
+ * caller, usually a {@link WordCounter} using the same ids. An instance is not thread safe.
+ */
+final class LinkedFrequencyBuckets {
+    /** Marks the end of a list */
+    private static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** The bucket of each word, indexed by word id */
+    private int[] bucketOf = new int[INITIAL_CAPACITY];
+
+    /** The previous word in the same bucket, indexed by word id */
+    private int[] previous = new int[INITIAL_CAPACITY];
+
+    /** The next word in the same bucket, indexed by word id */
+    private int[] next = new int[INITIAL_CAPACITY];
+
+    /** The count of the words in each bucket, indexed by bucket */
+    private int[] bucketCount = new int[INITIAL_CAPACITY];
+
+    /** The first word of each bucket, indexed by bucket */
+    private int[] first = new int[INITIAL_CAPACITY];
+
+    /** The bucket with the next larger count, indexed by bucket. Links the free buckets too */
+    private int[] higher = new int[INITIAL_CAPACITY];
+
+    /** The bucket with the next smaller count, indexed by bucket */
+    private int[] lower = new int[INITIAL_CAPACITY];
+
+    /** Number of buckets ever used, free ones included */
+    private int buckets = 0;
+
+    /** First bucket that is no longer used, NONE if there is none */
+    private int freeBucket = NONE;
+
+    /** The bucket with the smallest count, NONE if there are no words */
+    private int lowest = NONE;
+
+    /** The bucket with the largest count, NONE if there are no words */
+    private int highest = NONE;
+
+    /** Number of words in the buckets */
+    private int size = 0;
+
+    /**
+     * This method moves the word from the bucket of its old count to the bucket of its new
+     * count. A word with a count of 0 is in no bucket.
+     *
+     * @param id,       id of the word
+     * @param oldCount, the count the word had before, 0 if it is in no bucket
+     * @param newCount, the count the word has now, 0 to remove it
+     */
+    void update(int id, int oldCount, int newCount) {
+        if (oldCount == newCount) {
+            return;
+        }
+
+        if (id >= bucketOf.length) {
+            int capacity = Math.max(id + 1, bucketOf.length << 1);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+
+        int from = oldCount == 0 ? NONE : bucketOf[id];
+        int to = NONE;
+        if (newCount > oldCount) {
+            int below = from;
+            int above = from == NONE ? lowest : higher[from];
+            while (above != NONE && bucketCount[above] < newCount) {
+                below = above;
+                above = higher[above];
+            }
+
+            to = above != NONE && bucketCount[above] == newCount
+                    ? above : newBucket(newCount, below, above);
+        } else if (newCount > 0) {
+            int above = from;
+            int below = lower[from];
+            while (below != NONE && bucketCount[below] > newCount) {
+                above = below;
+                below = lower[below];
+            }
+
+            to = below != NONE && bucketCount[below] == newCount
+                    ? below : newBucket(newCount, below, above);
+        }
+
+        if (from != NONE) {
+            unlink(id, from);
+            size--;
+        }
+
+        if (to != NONE) {
+            size++;
+            // Push the word in front of its new bucket
+            bucketOf[id] = to;
+            previous[id] = NONE;
+            next[id] = first[to];
+            if (first[to] != NONE) {
+                previous[first[to]] = id;
+            }
+            first[to] = id;
+        }
+    }
+
+    /**
+     * @return the id of a word with the smallest count, negative if there are no words
+     */
+    int leastFrequent() {
+        return lowest == NONE ? NONE : first[lowest];
+    }
+
+    /**
+     * This method collects the words of the buckets with the largest counts, taking whole
+     * buckets until there are at least k words. The k most frequent words are among them
+     * whatever order is chosen for the words with the same count.
+     *
+     * @param numberOfFrequentWords, the number of most frequent words
+     *
+     * @return the ids of the words, in no particular order
+     */
+    int[] candidates(int numberOfFrequentWords) {
+        // Never more candidates than words in the buckets, however large k is
+        int[] candidates = new int[Math.min(Math.max(numberOfFrequentWords, 16), size)];
+        int count = 0;
+        for (int bucket = highest; bucket != NONE && count < numberOfFrequentWords; bucket = lower[bucket]) {
+            for (int id = first[bucket]; id != NONE; id = next[id]) {
+                if (count == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, Math.min(size, count << 1));
+                }
+
+                candidates[count++] = id;
+            }
+        }
+
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * This method removes the word from its bucket, freeing the bucket if it is left empty
+     */
+    private void unlink(int id, int bucket) {
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        } else {
+            first[bucket] = next[id];
+        }
+
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+
+        if (first[bucket] != NONE) {
+            return;
+        }
+
+        if (lower[bucket] != NONE) {
+            higher[lower[bucket]] = higher[bucket];
+        } else {
+            lowest = higher[bucket];
+        }
+
+        if (higher[bucket] != NONE) {
+            lower[higher[bucket]] = lower[bucket];
+        } else {
+            highest = lower[bucket];
+        }
+
+        higher[bucket] = freeBucket;
+        freeBucket = bucket;
+    }
+
+    /**
+     * This method creates an empty bucket for the given count between the two buckets
+     *
+     * @return the new bucket
+     */
+    private int newBucket(int count, int below, int above) {
+        int bucket;
+        if (freeBucket != NONE) {
+            bucket = freeBucket;
+            freeBucket = higher[bucket];
+        } else {
+            bucket = buckets++;
+            if (bucket == bucketCount.length) {
+                bucketCount = Arrays.copyOf(bucketCount, bucket << 1);
+                first = Arrays.copyOf(first, bucket << 1);
+                higher = Arrays.copyOf(higher, bucket << 1);
+                lower = Arrays.copyOf(lower, bucket << 1);
+            }
+        }
+
+        bucketCount[bucket] = count;
+        first[bucket] = NONE;
+        lower[bucket] = below;
+        higher[bucket] = above;
+
+        if (below != NONE) {
+            higher[below] = bucket;
+        } else {
+            lowest = bucket;
+        }
+
+        if (above != NONE) {
+            lower[above] = bucket;
+        } else {
+            highest = bucket;
+        }
+
+        return bucket;
+    }
+}
@@ -0,0 +1,320 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The class {@code OffHeapWordCounter} counts words like {@link WordCounter} but keeps the
+ * words, the hash table and the counts outside of the Java heap, in direct buffers. A vocabulary
+ * of hundreds of millions of words then costs the heap no more than a handful of buffer objects,
+ * so it neither needs a huge heap nor makes the garbage collector trace every word.
+ *
+ * <p>Every word is appended in UTF-8 to an arena of direct byte buffers. The tokenizer only
+ * keeps the letters a-z, so the words it hands over take one byte per character and are copied
+ * and compared without encoding; other words, e.g. stop words or stems given as strings, are
+ * encoded when they are added and compared by their encoding. The arena grows by adding buffers, each twice as large as the one before up to
+ * {@link #MAX_ARENA_CHUNK} bytes, and a word never spans two buffers. Every word has a record
+ * of five ints in a {@link DirectIntArray}: its hash, its count, its length in bytes and where
+ * it is in the arena. The open addressing table of word ids is another {@link DirectIntArray}.
+ *
+ * <p>Words are looked up by the characters in the tokenizer buffer, and a {@code String} is only
+ * created when {@link #word(int)} is called, i.e. for the words of the result. The ids are given
+ * in the order the words are first seen, like {@link WordCounter}, so the order of words with
+ * the same count is the same. The memory is given back when the counter is collected. An
+ * instance is not thread safe.
+ */
+final class OffHeapWordCounter implements Vocabulary {
+    /** Initial number of slots in the table, always a power of two */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Marks an empty slot in the table */
+    private static final int EMPTY = -1;
+
+    /** Size of the first buffer of the arena */
+    private static final int MIN_ARENA_CHUNK = 1 << 16;
+
+    /** Largest size of a buffer of the arena, unless a single word is longer */
+    private static final int MAX_ARENA_CHUNK = 1 << 26;
+
+    /** Number of ints in the record of a word, and the index of each field */
+    private static final int RECORD_SIZE = 5;
+    private static final int HASH = 0;
+    private static final int COUNT = 1;
+    private static final int LENGTH = 2;
+    private static final int CHUNK = 3;
+    private static final int POSITION = 4;
+
+    /** Slots of the hash table holding the id of the word, or EMPTY */
+    private DirectIntArray table;
+
+    /** Number of slots of the table minus one */
+    private long mask;
+
+    /** The record of each word, indexed by id times RECORD_SIZE */
+    private final DirectIntArray records;
+
+    /** The buffers holding the characters of the words */
+    private ByteBuffer[] arena = new ByteBuffer[0];
+
+    /** Number of bytes used in the last buffer of the arena */
+    private int arenaPosition = 0;
+
+    /** Number of distinct words */
+    private int size = 0;
+
+    /** Sum of all counts */
+    private long total = 0;
+
+    /** Number of words with a count of at least 1 */
+    private int distinct = 0;
+
+    OffHeapWordCounter() {
+        table = new DirectIntArray(INITIAL_CAPACITY);
+        table.fill(EMPTY);
+        mask = INITIAL_CAPACITY - 1;
+        records = new DirectIntArray((long) (INITIAL_CAPACITY >> 1) * RECORD_SIZE);
+    }
+
+    /**
+     * This method returns the id of the word held in the buffer, giving the word the next id
+     * with a count of 0 if it was never seen
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     *
+     * @return the id of the word
+     */
+    int intern(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        long slot = WordCounter.spread(hash) & mask;
+        for (int id = table.get(slot); id != EMPTY; id = table.get(slot)) {
+            if (records.get((long) id * RECORD_SIZE + HASH) == hash && matches(id, chars, offset, length)) {
+                return id;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return insert(slot, chars, offset, length, hash);
+    }
+
+    /**
+     * This method returns the id of the word, giving the word the next id with a count of 0 if
+     * it was never seen
+     *
+     * @param word, the word to look up
+     * @return the id of the word
+     */
+    int intern(String word) {
+        return intern(word.toCharArray(), 0, word.length());
+    }
+
+    /**
+     * This method adds delta to the count of the word with the given id
+     *
+     * @param id,    id of the word
+     * @param delta, the amount to add to the count, negative to take counts away
+     *
+     * @return the new count of the word
+     * @throws ArithmeticException, if the count overflows an int
+     */
+    int add(int id, int delta) {
+        long index = (long) id * RECORD_SIZE + COUNT;
+        int oldCount = records.get(index);
+        int newCount = Math.addExact(oldCount, delta);
+        records.set(index, newCount);
+        total += delta;
+        if (oldCount == 0 && newCount != 0) {
+            distinct++;
+        } else if (oldCount != 0 && newCount == 0) {
+            distinct--;
+        }
+
+        return newCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long total() {
+        return total;
+    }
+
+    @Override
+    public int distinct() {
+        return distinct;
+    }
+
+    /**
+     * This method reads the word back out of the arena, creating a new string every time
+     */
+    @Override
+    public String word(int id) {
+        long record = (long) id * RECORD_SIZE;
+        ByteBuffer chunk = arena[records.get(record + CHUNK)];
+        int position = records.get(record + POSITION);
+        byte[] bytes = new byte[records.get(record + LENGTH)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = chunk.get(position + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int count(int id) {
+        return records.get((long) id * RECORD_SIZE + COUNT);
+    }
+
+    @Override
+    public int maxCount() {
+        int maxCount = 0;
+        for (int id = 0; id < size; id++) {
+            maxCount = Math.max(maxCount, count(id));
+        }
+
+        return maxCount;
+    }
+
+    private boolean matches(int id, char[] chars, int offset, int length) {
+        long record = (long) id * RECORD_SIZE;
+        ByteBuffer chunk = arena[records.get(record + CHUNK)];
+        int position = records.get(record + POSITION);
+        if (records.get(record + LENGTH) == length) {
+            for (int i = 0; i < length; i++) {
+                char c = chars[offset + i];
+                if (c >= 0x80) {
+                    return matches(chunk, position, length, encode(chars, offset, length));
+                }
+
+                // A byte of a multi-byte character is never below 0x80, so it never matches c
+                if ((chunk.get(position + i) & 0xFF) != c) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        // A word of other characters than ASCII may still match, its encoding is longer
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] >= 0x80) {
+                return matches(chunk, position, records.get(record + LENGTH), encode(chars, offset, length));
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer chunk, int position, int length, byte[] encoded) {
+        if (encoded.length != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(position + i) != encoded[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the UTF-8 encoding of the word if it has other characters than ASCII, else null
+     */
+    private static byte[] encodeIfNotAscii(char[] chars, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] >= 0x80) {
+                return encode(chars, offset, length);
+            }
+        }
+
+        return null;
+    }
+
+    private static byte[] encode(char[] chars, int offset, int length) {
+        return new String(chars, offset, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int insert(long slot, char[] chars, int offset, int length, int hash) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Cannot count more than " + Integer.MAX_VALUE + " distinct words");
+        }
+
+        int id = size++;
+        long record = (long) id * RECORD_SIZE;
+        records.grow(record + RECORD_SIZE);
+
+        byte[] encoded = encodeIfNotAscii(chars, offset, length);
+        int byteLength = encoded == null ? length : encoded.length;
+        ByteBuffer chunk = reserve(byteLength);
+        for (int i = 0; i < byteLength; i++) {
+            chunk.put(arenaPosition + i, encoded == null ? (byte) chars[offset + i] : encoded[i]);
+        }
+
+        records.set(record + HASH, hash);
+        records.set(record + COUNT, 0);
+        records.set(record + LENGTH, byteLength);
+        records.set(record + CHUNK, arena.length - 1);
+        records.set(record + POSITION, arenaPosition);
+        arenaPosition += byteLength;
+        table.set(slot, id);
+
+        // Keep the load factor at or below one half
+        if ((long) size << 1 > mask + 1) {
+            grow();
+        }
+
+        return id;
+    }
+
+    /**
+     * This method makes sure the last buffer of the arena has room for the word, adding a new
+     * buffer if it does not
+     *
+     * @return the last buffer of the arena
+     */
+    private ByteBuffer reserve(int length) {
+        if (arena.length > 0 && arenaPosition + length <= arena[arena.length - 1].capacity()) {
+            return arena[arena.length - 1];
+        }
+
+        int capacity = arena.length == 0 ? MIN_ARENA_CHUNK
+                : Math.min(MAX_ARENA_CHUNK, arena[arena.length - 1].capacity() << 1);
+        arena = Arrays.copyOf(arena, arena.length + 1);
+        arena[arena.length - 1] = ByteBuffer.allocateDirect(Math.max(capacity, length));
+        arenaPosition = 0;
+        return arena[arena.length - 1];
+    }
+
+    private void grow() {
+        long capacity = (mask + 1) << 1;
+        DirectIntArray larger = new DirectIntArray(capacity);
+        larger.fill(EMPTY);
+        long largerMask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            long slot = WordCounter.spread(records.get((long) id * RECORD_SIZE + HASH)) & largerMask;
+            while (larger.get(slot) != EMPTY) {
+                slot = (slot + 1) & largerMask;
+            }
+
+            larger.set(slot, id);
+        }
+
+        table = larger;
+        mask = largerMask;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The class {@code SlidingWindowAccumulator} answers the most frequent words of the documents
+ * added during the last stretch of time, e.g. the last 5 minutes of a log stream. The words are
+ * found, stemmed and stop words dropped by the {@link FrequentWordSearcher} it is created with,
+ * which also decides the order of words with the same count.
+ *
+ * <p>The window is split into sub-windows of equal length kept in a ring, each with its own
+ * {@link WordCounter} of the words added during it. A second counter holds the counts of the
+ * whole window, kept sorted in {@link LinkedFrequencyBuckets} like
+ * {@link WordFrequencyAccumulator} does. When time moves past a sub-window its counts are taken
+ * away from the window counts and its counter is dropped, so no text is ever read again and the
+ * top k words are always ready. Time moves in steps of a sub-window, so the window covers the
+ * current sub-window and the ones before it.
+ *
+ * <p>Words which left the window keep their id in the window counter until the counter holds
+ * many more words than are in the window, then it is rebuilt from the sub-windows. Words with
+ * the same count are therefore ordered by when they were first counted, which can be before the
+ * window started, unless the tie break is {@link TieBreak#LEXICOGRAPHIC}.
+ *
+ * <p>Time is given by the caller with every document and query, or read from the system clock.
+ * Documents older than the window are dropped. An instance is thread safe, documents are counted
+ * without holding the lock.
+ */
+public final class SlidingWindowAccumulator {
+    /** Logger object to log essential details */
+    private static Logger logger = Logger.getLogger(SlidingWindowAccumulator.class);
+
+    /** Smallest number of words in the window counter before it is rebuilt */
+    private static final int MIN_COMPACTION_SIZE = 1 << 16;
+
+    /** The searcher counting every document */
+    private final FrequentWordSearcher searcher;
+
+    /** Length of a sub-window in milliseconds */
+    private final long subWindowMillis;
+
+    /** The counts of each sub-window, indexed by sub-window number modulo their number */
+    private final WordCounter[] subWindows;
+
+    /** Number of the newest sub-window, the time divided by the sub-window length */
+    private long newest = Long.MIN_VALUE;
+
+    /** The counts of the whole window, it gives every word its id */
+    private WordCounter wordFrequency = new WordCounter();
+
+    /** The ids of the words, sorted by their counts in the window */
+    private LinkedFrequencyBuckets frequencyBuckets = new LinkedFrequencyBuckets();
+
+    /**
+     * @param searcher,   the searcher counting the documents
+     * @param window,     the length of the window
+     * @param unit,       the unit of the window length
+     * @param subWindows, the number of sub-windows the window is split into, which is the
+     *                    number of steps the window moves in
+     *
+     * @throws IllegalArgumentException, if searcher or unit is null, or the window cannot be
+     *                                   split into sub-windows of at least a millisecond
+     */
+    public SlidingWindowAccumulator(FrequentWordSearcher searcher, long window, TimeUnit unit,
+            int subWindows) {
+        if (searcher == null || unit == null) {
+            throw new IllegalArgumentException("Valid searcher and time unit required to count the words");
+        }
+
+        if (subWindows <= 0 || unit.toMillis(window) < subWindows) {
+            throw new IllegalArgumentException("Window should split into sub-windows of at least a millisecond");
+        }
+
+        this.searcher = searcher;
+        this.subWindowMillis = unit.toMillis(window) / subWindows;
+        this.subWindows = new WordCounter[subWindows];
+    }
+
+    /**
+     * This method counts the words of the text and adds them to the sub-window of the given time
+     *
+     * @param text,            the document to add, nothing is counted if it is empty
+     * @param timestampMillis, the time of the document in milliseconds since the epoch
+     *
+     * @throws IllegalArgumentException, if text is null
+     */
+    public void add(String text, long timestampMillis) {
+        if (text == null) {
+            throw new IllegalArgumentException("Valid text required to add to the counts");
+        }
+
+        WordCounter document = new WordCounter();
+        searcher.extractWordFrequency(document, text);
+        addAll(document, Math.floorDiv(timestampMillis, subWindowMillis));
+    }
+
+    /**
+     * This method counts the words of the text and adds them to the current sub-window
+     *
+     * @param text, the document to add, nothing is counted if it is empty
+     *
+     * @throws IllegalArgumentException, if text is null
+     */
+    public void add(String text) {
+        add(text, System.currentTimeMillis());
+    }
+
+    /**
+     * This method returns the most frequent words of the window ending at the given time
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none are returned if less than 1
+     * @param nowMillis,             the current time in milliseconds since the epoch
+     *
+     * @return the k frequent words of the window with their counts
+     */
+    public synchronized TopKResult topK(int numberOfFrequentWords, long nowMillis) {
+        advance(Math.floorDiv(nowMillis, subWindowMillis));
+        if (numberOfFrequentWords <= 0 || wordFrequency.distinct() == 0) {
+            return TopKResult.empty(wordFrequency.total(), wordFrequency.distinct());
+        }
+
+        int[] candidates = frequencyBuckets.candidates(numberOfFrequentWords);
+        return FrequentWordSearcher.heapSelectFrequentWords(wordFrequency, candidates,
+                candidates.length, numberOfFrequentWords, searcher.tieBreak());
+    }
+
+    /**
+     * This method returns the most frequent words of the window ending now
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none are returned if less than 1
+     *
+     * @return the k frequent words of the window with their counts
+     */
+    public TopKResult topK(int numberOfFrequentWords) {
+        return topK(numberOfFrequentWords, System.currentTimeMillis());
+    }
+
+    /**
+     * This method returns the default number of most frequent words of the searcher for the
+     * window ending now
+     *
+     * @return the most frequent words of the window with their counts
+     */
+    public TopKResult topK() {
+        return topK(searcher.numberOfFrequentWords());
+    }
+
+    /**
+     * This method adds the counts of a document to its sub-window and to the window
+     *
+     * @param document,  the counted document
+     * @param subWindow, the number of the sub-window of the document
+     */
+    private synchronized void addAll(WordCounter document, long subWindow) {
+        advance(subWindow);
+        if (subWindow <= newest - subWindows.length) {
+            if (logger.isDebugEnabled())
+                logger.debug("Dropping a document older than the window");
+            return;
+        }
+
+        int slot = (int) Math.floorMod(subWindow, (long) subWindows.length);
+        if (subWindows[slot] == null) {
+            subWindows[slot] = new WordCounter();
+        }
+
+        for (int documentId = 0; documentId < document.size(); documentId++) {
+            int count = document.count(documentId);
+            if (count == 0) {
+                // A stop word that was counted and then dropped
+                continue;
+            }
+
+            String word = document.word(documentId);
+            subWindows[slot].add(word, count);
+            update(wordFrequency.intern(word), count);
+        }
+    }
+
+    /**
+     * This method moves the window forward to the given sub-window, taking away the counts of
+     * every sub-window that falls out of it
+     *
+     * @param subWindow, the number of the newest sub-window
+     */
+    private void advance(long subWindow) {
+        if (subWindow <= newest) {
+            return;
+        }
+
+        if (newest == Long.MIN_VALUE || subWindow - newest >= subWindows.length) {
+            // Every sub-window falls out, start over
+            for (int slot = 0; slot < subWindows.length; slot++) {
+                subWindows[slot] = null;
+            }
+            wordFrequency = new WordCounter();
+            frequencyBuckets = new LinkedFrequencyBuckets();
+        } else {
+            for (long expired = newest + 1; expired <= subWindow; expired++) {
+                expire((int) Math.floorMod(expired, (long) subWindows.length));
+            }
+        }
+
+        newest = subWindow;
+        if (wordFrequency.size() > MIN_COMPACTION_SIZE && wordFrequency.size() > wordFrequency.distinct() << 2) {
+            compact();
+        }
+    }
+
+    /**
+     * This method takes the counts of the sub-window in the given slot away from the window
+     */
+    private void expire(int slot) {
+        WordCounter expired = subWindows[slot];
+        if (expired == null) {
+            return;
+        }
+
+        for (int id = 0; id < expired.size(); id++) {
+            update(wordFrequency.intern(expired.word(id)), -expired.count(id));
+        }
+
+        subWindows[slot] = null;
+    }
+
+    /**
+     * This method rebuilds the window counter from the sub-windows, oldest first, so the words
+     * which left the window no longer take up room
+     */
+    private void compact() {
+        if (logger.isDebugEnabled())
+            logger.debug("Rebuilding the window counts, " + wordFrequency.distinct() + " of "
+                    + wordFrequency.size() + " words are in the window");
+
+        wordFrequency = new WordCounter(wordFrequency.distinct());
+        frequencyBuckets = new LinkedFrequencyBuckets();
+        for (long subWindow = newest - subWindows.length + 1; subWindow <= newest; subWindow++) {
+            WordCounter counts = subWindows[(int) Math.floorMod(subWindow, (long) subWindows.length)];
+            if (counts == null) {
+                continue;
+            }
+
+            for (int id = 0; id < counts.size(); id++) {
+                update(wordFrequency.intern(counts.word(id)), counts.count(id));
+            }
+        }
+    }
+
+    /**
+     * This method adds delta to the window count of the word and moves it to its new bucket
+     */
+    private void update(int id, int delta) {
+        int oldCount = wordFrequency.count(id);
+        frequencyBuckets.update(id, oldCount, wordFrequency.add(id, delta));
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The class {@code SpaceSavingSketch} finds the most frequent words with the Space-Saving
+ * algorithm of Metwally, Agrawal and El Abbadi in a fixed number of counters, see
+ * {@link CountingMode#SPACE_SAVING}. Every counter holds a word, its estimated count and the
+ * most the count can be above the true count. A word without a counter takes over the counter
+ * with the smallest count, which is found in O(1) because the counters are kept sorted by count
+ * in {@link LinkedFrequencyBuckets}.
+ *
+ * <p>The words are looked up by the characters in the tokenizer buffer in a
+ * {@link BoundedWordTable}, so a string is only created when a word takes over a counter. All
+ * the memory is allocated up front and stays the same however many words are counted. An
+ * instance is not thread safe.
+ */
+final class SpaceSavingSketch implements FrequencySketch, WordCounts {
+    /** The word of each counter */
+    private final BoundedWordTable words;
+
+    /** The estimated count of each counter */
+    private final int[] counts;
+
+    /** The most the count of each counter can be above the true count of its word */
+    private final int[] errors;
+
+    /** The counters, sorted by their counts */
+    private final LinkedFrequencyBuckets frequencyBuckets = new LinkedFrequencyBuckets();
+
+    /** Number of counters in use */
+    private int size = 0;
+
+    /** Number of words counted */
+    private long total = 0;
+
+    /**
+     * @param capacity, the number of counters
+     *
+     * @throws IllegalArgumentException, if capacity is less than 1 or more than 2^28
+     */
+    SpaceSavingSketch(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Number of counters should be between 1 and " + (1 << 28));
+        }
+
+        words = new BoundedWordTable(capacity);
+        counts = new int[capacity];
+        errors = new int[capacity];
+    }
+
+    @Override
+    public void offer(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int id = words.find(chars, offset, length, hash);
+        increment(id >= 0 ? id : claim(new String(chars, offset, length), hash));
+    }
+
+    @Override
+    public void offer(String word) {
+        int hash = word.hashCode();
+        int id = words.find(word, hash);
+        increment(id >= 0 ? id : claim(word, hash));
+    }
+
+    @Override
+    public TopKResult topK(int numberOfFrequentWords, TieBreak tieBreak) {
+        int[] ids = new int[0];
+        if (numberOfFrequentWords > 0 && size > 0) {
+            int[] candidates = frequencyBuckets.candidates(numberOfFrequentWords);
+            ids = FrequentWordSearcher.heapSelect(this, candidates, candidates.length,
+                    numberOfFrequentWords, tieBreak);
+        }
+
+        String[] topWords = new String[ids.length];
+        long[] topCounts = new long[ids.length];
+        long[] topErrors = new long[ids.length];
+        for (int rank = 0; rank < ids.length; rank++) {
+            topWords[rank] = words.word(ids[rank]);
+            topCounts[rank] = counts[ids[rank]];
+            topErrors[rank] = errors[ids[rank]];
+        }
+
+        return new TopKResult(topWords, topCounts, total, size, topErrors, errorBound());
+    }
+
+    /**
+     * This method returns the most any count can be above the true count. Until every counter
+     * is used no word was evicted and all counts are exact. Afterwards a word without a counter
+     * was seen at most as often as the smallest count, which is also the largest error any
+     * counter can have.
+     *
+     * @return the largest error of any count, at most the number of words counted divided by
+     *         the number of counters
+     */
+    long errorBound() {
+        return size < counts.length ? 0 : counts[frequencyBuckets.leastFrequent()];
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * @return the number of counters in use
+     */
+    int size() {
+        return size;
+    }
+
+    @Override
+    public String word(int id) {
+        return words.word(id);
+    }
+
+    @Override
+    public int count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * @param id, the counter
+     * @return the most the count of the counter can be above the true count of its word
+     */
+    int error(int id) {
+        return errors[id];
+    }
+
+    /**
+     * This method gives the word a counter, a free one or the one with the smallest count
+     *
+     * @param word, the word without a counter
+     * @param hash, the hash of the word
+     *
+     * @return the counter of the word, holding its count before this word was counted
+     */
+    private int claim(String word, int hash) {
+        int id;
+        if (size < counts.length) {
+            id = size++;
+        } else {
+            // The new word may have been seen as often as the word it evicts, but not more
+            id = frequencyBuckets.leastFrequent();
+            errors[id] = counts[id];
+            words.remove(id);
+        }
+
+        words.put(id, word, hash);
+        return id;
+    }
+
+    private void increment(int id) {
+        total++;
+        frequencyBuckets.update(id, counts[id], counts[id] + 1);
+        counts[id]++;
+    }
+}
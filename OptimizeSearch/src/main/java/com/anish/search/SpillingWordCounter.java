@@ -0,0 +1,477 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The class {@code SpillingWordCounter} counts words in a {@link WordCounter} as long as the
+ * counter fits in a memory budget, and spills it to disk once it does not. The words of the
+ * counter are then sorted and written with their counts to a temporary file, a run, and counting
+ * goes on in an empty counter. Once all words are counted the runs are merged, up to
+ * {@link #MERGE_WIDTH} at a time like an external merge sort, and the counts of every word are
+ * added up as the merged words come out in order. The most frequent words are selected from the
+ * merged words with a heap of size k, so neither the merge nor the selection ever holds more
+ * than k words and one word per run.
+ *
+ * <p>Every word is written with the position of the first word it was counted as, which gives
+ * words with the same count the same order they would have in a single counter. A counter which
+ * never went past its budget is selected from in memory without touching the disk. The size of
+ * the counter is estimated from the number of distinct words and their lengths, see
+ * {@link #BYTES_PER_WORD}.
+ *
+ * <p>The runs are deleted when the counter is closed. An instance is not thread safe.
+ */
+final class SpillingWordCounter implements Closeable {
+    /**
+     * Estimated number of bytes a word takes in the counter besides its characters: the string
+     * and its char array, the slots of the table, the hash, the count and the first position,
+     * with room for the arrays not yet filled, and the word and id sorted when it is spilled
+     */
+    static final int BYTES_PER_WORD = 104;
+
+    /** Largest number of runs merged at a time, more runs are merged in several passes */
+    private static final int MERGE_WIDTH = 64;
+
+    /** Prefix of the name of the runs */
+    private static final String RUN_PREFIX = "words";
+
+    /** Suffix of the name of the runs */
+    private static final String RUN_SUFFIX = ".run";
+
+    /** Number of bytes the counter may take before it is spilled */
+    private final long memoryBudget;
+
+    /** The directory of the runs, null for the default temporary directory */
+    private final Path directory;
+
+    /** The words counted since the last run was written */
+    private WordCounter counted = new WordCounter();
+
+    /** The position of the first word counted as each word, indexed by id in counted */
+    private long[] firstSeen = new long[1024];
+
+    /** Estimated number of bytes taken by counted */
+    private long bytes = 0;
+
+    /** Number of words counted */
+    private long total = 0;
+
+    /** The runs written so far, in the order they were written */
+    private final List<Path> runs = new ArrayList<Path>();
+
+    /**
+     * @param memoryBudget, the number of bytes the counter may take before it is spilled
+     * @param directory,    the directory of the runs, null for the default temporary directory
+     */
+    SpillingWordCounter(long memoryBudget, Path directory) {
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+    }
+
+    /**
+     * This method counts the word held in the buffer once
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     *
+     * @throws IOException, if the counter cannot be spilled
+     */
+    void increment(char[] chars, int offset, int length) throws IOException {
+        int size = counted.size();
+        counted.increment(chars, offset, length);
+        counted(counted.size() > size, length);
+    }
+
+    /**
+     * This method counts the word once
+     *
+     * @param word, the word to count
+     * @throws IOException, if the counter cannot be spilled
+     */
+    void increment(String word) throws IOException {
+        int size = counted.size();
+        counted.add(word, 1);
+        counted(counted.size() > size, word.length());
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * @return the number of runs written to disk so far
+     */
+    int runs() {
+        return runs.size();
+    }
+
+    /**
+     * This method selects the most frequent words of all words counted. If any run was written
+     * the words still in memory are written as the last run and all runs are merged.
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none if less than 1
+     * @param tieBreak,              the order of words with the same count
+     *
+     * @throws IOException, if the runs cannot be written or read
+     * @return the k frequent words with their counts
+     */
+    TopKResult topK(int numberOfFrequentWords, TieBreak tieBreak) throws IOException {
+        if (runs.isEmpty()) {
+            return FrequentWordSearcher.selectMostFrequentWords(counted, counted.maxCount(),
+                    numberOfFrequentWords, tieBreak);
+        }
+
+        spill();
+        while (runs.size() > MERGE_WIDTH) {
+            List<Path> merged = new ArrayList<Path>(runs.subList(0, MERGE_WIDTH));
+            Path run = newRun();
+            runs.add(run);
+            try (RunWriter writer = new RunWriter(run)) {
+                merge(merged, writer);
+            }
+
+            delete(merged);
+            runs.subList(0, MERGE_WIDTH).clear();
+        }
+
+        Selection selection = new Selection(numberOfFrequentWords, tieBreak);
+        merge(runs, selection);
+        return selection.result();
+    }
+
+    /**
+     * This method deletes the runs written so far
+     */
+    @Override
+    public void close() throws IOException {
+        delete(runs);
+        runs.clear();
+    }
+
+    /**
+     * This method records a word just counted and spills the counter once it is over its budget
+     *
+     * @param first,  true if the word was not in the counter yet
+     * @param length, the number of characters of the word
+     */
+    private void counted(boolean first, int length) throws IOException {
+        if (first) {
+            int id = counted.size() - 1;
+            if (id == firstSeen.length) {
+                firstSeen = Arrays.copyOf(firstSeen, id << 1);
+            }
+
+            firstSeen[id] = total;
+            bytes += BYTES_PER_WORD + 2L * length;
+        }
+        total++;
+
+        if (bytes > memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * This method writes the words of the counter sorted with their counts as a new run and
+     * empties the counter
+     */
+    private void spill() throws IOException {
+        WordCounter words = counted;
+        int[] ids = WordSort.alphabeticalIds(words);
+
+        Path run = newRun();
+        runs.add(run);
+        try (RunWriter writer = new RunWriter(run)) {
+            for (int id : ids) {
+                writer.accept(words.word(id), words.count(id), firstSeen[id]);
+            }
+        }
+
+        counted = new WordCounter();
+        bytes = 0;
+    }
+
+    private Path newRun() throws IOException {
+        return directory == null ? Files.createTempFile(RUN_PREFIX, RUN_SUFFIX)
+                : Files.createTempFile(directory, RUN_PREFIX, RUN_SUFFIX);
+    }
+
+    /**
+     * This method merges the sorted runs into a single sorted sequence of words, adding up the
+     * counts of a word found in several runs and keeping its smallest first position
+     *
+     * @param merged, the runs to merge
+     * @param sink,   the sink taking the merged words in order
+     */
+    private static void merge(List<Path> merged, MergedWordSink sink) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(merged.size(),
+                new Comparator<RunReader>() {
+                    @Override
+                    public int compare(RunReader a, RunReader b) {
+                        return a.word.compareTo(b.word);
+                    }
+                });
+
+        List<RunReader> readers = new ArrayList<RunReader>(merged.size());
+        try {
+            for (Path run : merged) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader head = queue.poll();
+                String word = head.word;
+                long count = head.count;
+                long first = head.firstSeen;
+                advance(head, queue);
+
+                while (!queue.isEmpty() && queue.peek().word.equals(word)) {
+                    RunReader reader = queue.poll();
+                    count += reader.count;
+                    first = Math.min(first, reader.firstSeen);
+                    advance(reader, queue);
+                }
+
+                sink.accept(word, count, first);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void advance(RunReader reader, PriorityQueue<RunReader> queue) throws IOException {
+        if (reader.next()) {
+            queue.add(reader);
+        }
+    }
+
+    private static void delete(List<Path> paths) throws IOException {
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * The interface {@code MergedWordSink} takes the merged words in the order of the words
+     */
+    private interface MergedWordSink {
+
+        /**
+         * @param word,      the word
+         * @param count,     the count of the word, at least 1
+         * @param firstSeen, the position of the first word counted as this word
+         */
+        void accept(String word, long count, long firstSeen) throws IOException;
+    }
+
+    /**
+     * The writer of a run. Every word is written as its length and its characters, followed by
+     * its count and its first position.
+     */
+    private static final class RunWriter implements MergedWordSink, Closeable {
+        private final DataOutputStream output;
+
+        RunWriter(Path run) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+        }
+
+        @Override
+        public void accept(String word, long count, long firstSeen) throws IOException {
+            output.writeInt(word.length());
+            output.writeChars(word);
+            output.writeLong(count);
+            output.writeLong(firstSeen);
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+
+    /**
+     * The reader of a run, holding the word it read last
+     */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream input;
+
+        private String word;
+        private long count;
+        private long firstSeen;
+
+        RunReader(Path run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        /**
+         * @return true, if a word was read, false at the end of the run
+         */
+        boolean next() throws IOException {
+            int length;
+            try {
+                length = input.readInt();
+            } catch (EOFException ex) {
+                return false;
+            }
+
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = input.readChar();
+            }
+
+            word = new String(chars);
+            count = input.readLong();
+            firstSeen = input.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * The selection of the most frequent of the merged words with a min heap of size k, the
+     * root being the word which ranks last. It also adds up the number of distinct words.
+     */
+    private static final class Selection implements MergedWordSink {
+        private final int numberOfFrequentWords;
+        private final TieBreak tieBreak;
+
+        private String[] words = new String[0];
+        private long[] counts = new long[0];
+        private long[] firstSeen = new long[0];
+
+        /** Number of words in the heap */
+        private int size = 0;
+
+        private long total = 0;
+        private int distinct = 0;
+
+        Selection(int numberOfFrequentWords, TieBreak tieBreak) {
+            this.numberOfFrequentWords = Math.max(0, numberOfFrequentWords);
+            this.tieBreak = tieBreak;
+        }
+
+        @Override
+        public void accept(String word, long count, long first) {
+            total += count;
+            distinct++;
+
+            if (size < numberOfFrequentWords) {
+                if (size == words.length) {
+                    int capacity = (int) Math.min(numberOfFrequentWords, Math.max(16L, (long) size << 1));
+                    words = Arrays.copyOf(words, capacity);
+                    counts = Arrays.copyOf(counts, capacity);
+                    firstSeen = Arrays.copyOf(firstSeen, capacity);
+                }
+
+                set(size, word, count, first);
+                siftUp(size++);
+            } else if (size > 0 && ranksAbove(count, word, first, 0)) {
+                set(0, word, count, first);
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * @return the selected words with their counts, most frequent first
+         */
+        TopKResult result() {
+            for (int last = size - 1; last > 0; last--) {
+                swap(0, last);
+                siftDown(0, last);
+            }
+
+            return new TopKResult(Arrays.copyOf(words, size), Arrays.copyOf(counts, size), total, distinct);
+        }
+
+        /**
+         * @return true, if the word ranks above the word at the given index of the heap
+         */
+        private boolean ranksAbove(long count, String word, long first, int index) {
+            if (count != counts[index]) {
+                return count > counts[index];
+            }
+
+            if (tieBreak == TieBreak.LEXICOGRAPHIC) {
+                return word.compareTo(words[index]) < 0;
+            }
+
+            return first < firstSeen[index];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksAbove(counts[parent], words[parent], firstSeen[parent], index)) {
+                    break;
+                }
+
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int heapSize) {
+            while (true) {
+                int child = (index << 1) + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+
+                if (child + 1 < heapSize
+                        && ranksAbove(counts[child], words[child], firstSeen[child], child + 1)) {
+                    child++;
+                }
+
+                if (!ranksAbove(counts[index], words[index], firstSeen[index], child)) {
+                    break;
+                }
+
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void set(int index, String word, long count, long first) {
+            words[index] = word;
+            counts[index] = count;
+            firstSeen[index] = first;
+        }
+
+        private void swap(int a, int b) {
+            String word = words[a];
+            long count = counts[a];
+            long first = firstSeen[a];
+            set(a, words[b], counts[b], firstSeen[b]);
+            set(b, word, count, first);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.tartarus.snowball.SnowballStemmer;
+
+/**
+ * The class {@code StemCache} remembers the stem of the words seen recently so a word is only
+ * given to the stemmer the first time it is seen. Natural language text repeats the same few
+ * words over and over, so most words are found in the cache.
+ *
+ * <p>The cache holds at most {@link #maxSize()} words. It is split into stripes, each a small
+ * least recently used map guarded by its own lock, so threads stemming different words rarely
+ * wait on each other. The words are shared out between the stripes, a cache smaller than the
+ * number of stripes has fewer stripes, so the stripes together hold exactly {@link #maxSize()}
+ * words. When a stripe is full the word used least recently in that stripe is evicted. The stemmer is never shared, every caller passes in its own.
+ *
+ * <p>An instance is thread safe.
+ */
+public final class StemCache {
+    /** Largest number of stripes, always a power of two */
+    private static final int STRIPES = 16;
+
+    /** The stripes, a power of two of them */
+    private final Stripe[] stripes;
+
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize, the largest number of words kept. Can never be less than 1
+     */
+    StemCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Stem cache size should be at least 1");
+        }
+
+        this.maxSize = maxSize;
+        this.stripes = new Stripe[Math.min(STRIPES, Integer.highestOneBit(maxSize))];
+        for (int i = 0; i < stripes.length; i++) {
+            // The first stripes take one word more when the size does not divide evenly
+            stripes[i] = new Stripe(maxSize / stripes.length + (i < maxSize % stripes.length ? 1 : 0));
+        }
+    }
+
+    /**
+     * This method returns the stem of the word, asking the stemmer only if the word is not cached
+     *
+     * @param word,    the word to stem
+     * @param stemmer, the stemmer owned by the caller
+     *
+     * @return the stem of the word
+     */
+    String stem(String word, SnowballStemmer stemmer) {
+        int hash = word.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+
+        String stem;
+        synchronized (stripe) {
+            stem = stripe.get(word);
+        }
+
+        if (stem != null) {
+            hits.increment();
+            return stem;
+        }
+
+        misses.increment();
+        stemmer.setCurrent(word);
+        stem = stemmer.stem() ? stemmer.getCurrent() : word;
+
+        synchronized (stripe) {
+            stripe.put(word, stem);
+        }
+
+        return stem;
+    }
+
+    /**
+     * @return the number of words found in the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of words that had to be stemmed
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of words cached right now
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the largest number of words kept
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * A least recently used map holding a part of the cache
+     */
+    private static final class Stripe extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
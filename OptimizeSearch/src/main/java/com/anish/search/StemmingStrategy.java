@@ -0,0 +1,25 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The enum {@code StemmingStrategy} decides when a {@link FrequentWordSearcher} stems the words.
+ * Both strategies find exactly the same words with the same counts.
+ */
+public enum StemmingStrategy {
+
+    /**
+     * Every word is stemmed as soon as it is found and its stem is counted. The stemmer runs
+     * the first time a word is found in the text, unless the stem is found in the stem cache,
+     * and the words seen again are counted by the id of their stem.
+     */
+    PER_WORD,
+
+    /**
+     * The words are counted as they appear in the text, then every distinct word is stemmed once
+     * and the counts of the words sharing a stem are added up. The stemmer runs once per distinct
+     * word instead of once per word of the text.
+     */
+    AFTER_COUNTING
+}
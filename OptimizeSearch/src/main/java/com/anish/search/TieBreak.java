@@ -0,0 +1,27 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The enum {@code TieBreak} decides the order of words seen the same number of times in the
+ * result of a {@link FrequentWordSearcher}, and which of them are returned when only some fit in
+ * the number of words asked for. Every order is deterministic, so the same text always gives the
+ * same result on any JVM. The order is kept while the words are selected, the whole vocabulary
+ * is never sorted for it.
+ */
+public enum TieBreak {
+
+    /**
+     * Words seen the same number of times are ordered by where they are first seen in the text.
+     * This costs nothing, the counters of a search give the words their ids in that order,
+     * parallel searches included.
+     */
+    FIRST_OCCURRENCE,
+
+    /**
+     * Words seen the same number of times are ordered alphabetically, by {@link String#compareTo}.
+     * Only the words of the frequencies that make it into the result are compared.
+     */
+    LEXICOGRAPHIC
+}
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The interface {@code TokenSink} receives the words found by the {@link WordTokenizer}.
+ * The characters are handed over in the tokenizer's own buffer which is reused for the
+ * next word, so an implementation that needs to keep the word must copy it.
+ */
+interface TokenSink {
+
+    /**
+     * This method is called once for every word found in the text
+     *
+     * @param buffer, the buffer holding the lower cased word starting at index 0
+     * @param length, the number of characters in the word. Always greater than 0
+     */
+    void onToken(char[] buffer, int length);
+}
@@ -0,0 +1,222 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code TopKResult} holds the most frequent words found by a search together with how
+ * often each was seen, the number of words counted and the number of distinct words. The words
+ * and their counts are kept in two parallel arrays indexed by rank, 0 being the most frequent
+ * word, so no entry object or boxed count is created per word.
+ *
+ * <p>The counts are those of the counted words, i.e. after stop words were dropped and, if the
+ * searcher stems, after the words sharing a stem were added up. A result found with one of the
+ * approximate {@link CountingMode}s holds estimated counts, each with the most it can be above
+ * the true count. An instance is immutable.
+ */
+public final class TopKResult {
+    private static final String[] NO_WORDS = new String[0];
+
+    private static final long[] NO_COUNTS = new long[0];
+
+    /** The words, indexed by rank */
+    private final String[] words;
+
+    /** The count of each word, indexed by rank */
+    private final long[] counts;
+
+    /** Number of words counted */
+    private final long totalTokenCount;
+
+    /** Number of distinct words counted */
+    private final int distinctWordCount;
+
+    /** The most each count can be above the true count, indexed by rank. Null if exact */
+    private final long[] errors;
+
+    /** The most any estimated count can be above the true count, 0 if exact */
+    private final long errorBound;
+
+    /**
+     * @param words,             the words, most frequent first. Owned by the result from now on
+     * @param counts,            the count of each word. Owned by the result from now on
+     * @param totalTokenCount,   the number of words counted
+     * @param distinctWordCount, the number of distinct words counted
+     */
+    TopKResult(String[] words, long[] counts, long totalTokenCount, int distinctWordCount) {
+        this(words, counts, totalTokenCount, distinctWordCount, null, 0);
+    }
+
+    /**
+     * @param words,             the words, most frequent first. Owned by the result from now on
+     * @param counts,            the estimated count of each word. Owned by the result from now on
+     * @param totalTokenCount,   the number of words counted
+     * @param distinctWordCount, the number of distinct words counted, or of the candidates kept
+     * @param errors,            the most each count can be above the true count, null if exact
+     * @param errorBound,        the most any estimated count can be above the true count
+     */
+    TopKResult(String[] words, long[] counts, long totalTokenCount, int distinctWordCount,
+            long[] errors, long errorBound) {
+        this.words = words;
+        this.counts = counts;
+        this.totalTokenCount = totalTokenCount;
+        this.distinctWordCount = distinctWordCount;
+        this.errors = errors;
+        this.errorBound = errorBound;
+    }
+
+    /**
+     * @param totalTokenCount,   the number of words counted
+     * @param distinctWordCount, the number of distinct words counted
+     * @return a result without words
+     */
+    static TopKResult empty(long totalTokenCount, int distinctWordCount) {
+        return new TopKResult(NO_WORDS, NO_COUNTS, totalTokenCount, distinctWordCount);
+    }
+
+    /**
+     * @return the number of words in the result, at most the number asked for
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * @param rank, the rank of the word, 0 for the most frequent word
+     * @return the word with the given rank
+     */
+    public String word(int rank) {
+        return words[rank];
+    }
+
+    /**
+     * @param rank, the rank of the word, 0 for the most frequent word
+     * @return the number of times the word with the given rank was seen
+     */
+    public long count(int rank) {
+        return counts[rank];
+    }
+
+    /**
+     * @param rank, the rank of the word, 0 for the most frequent word
+     * @return the most the count of the word with the given rank can be above its true count,
+     *         so the true count is between count(rank) - error(rank) and count(rank). Always 0
+     *         for an exact result
+     */
+    public long error(int rank) {
+        return errors == null ? 0 : errors[rank];
+    }
+
+    /**
+     * This method returns the most any count of an approximate search can be above the true
+     * count, words left out of the result included. A word whose count minus its error is above
+     * this bound is certainly more frequent than any word left out. See the {@link CountingMode}
+     * for how the bound is guaranteed.
+     *
+     * @return the largest error of any estimated count, 0 for an exact result
+     */
+    public long errorBound() {
+        return errorBound;
+    }
+
+    /**
+     * @return true, if the counts are exact
+     */
+    public boolean isExact() {
+        return errors == null;
+    }
+
+    /**
+     * @return an unmodifiable list of the words, most frequent first, backed by this result
+     */
+    public List<String> words() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return words[index];
+            }
+
+            @Override
+            public int size() {
+                return words.length;
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the counts, most frequent first
+     */
+    public long[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * @return the number of words counted, stop words excluded
+     */
+    public long totalTokenCount() {
+        return totalTokenCount;
+    }
+
+    /**
+     * @return the number of distinct words counted, stop words excluded. For a
+     *         {@link CountingMode#SPACE_SAVING} result the number of counters in use, which is
+     *         at most the number of distinct words. A {@link CountingMode#COUNT_MIN_SKETCH}
+     *         result does not know the number of distinct words and gives the number of
+     *         candidate words it kept, which is at most k
+     */
+    public int distinctWordCount() {
+        return distinctWordCount;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof TopKResult)) {
+            return false;
+        }
+
+        TopKResult other = (TopKResult) obj;
+        return totalTokenCount == other.totalTokenCount
+                && distinctWordCount == other.distinctWordCount
+                && errorBound == other.errorBound
+                && Arrays.equals(words, other.words)
+                && Arrays.equals(counts, other.counts)
+                && Arrays.equals(errors, other.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(words);
+        hash = 31 * hash + Arrays.hashCode(counts);
+        hash = 31 * hash + Arrays.hashCode(errors);
+        hash = 31 * hash + Long.hashCode(totalTokenCount);
+        return 31 * hash + distinctWordCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int rank = 0; rank < words.length; rank++) {
+            if (rank > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(words[rank]).append('=').append(counts[rank]);
+        }
+
+        builder.append("] of ").append(totalTokenCount).append(" words, ")
+                .append(distinctWordCount).append(" distinct");
+        if (!isExact()) {
+            builder.append(", counts at most ").append(errorBound).append(" too high");
+        }
+
+        return builder.toString();
+    }
+}
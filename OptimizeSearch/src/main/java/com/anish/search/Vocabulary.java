@@ -0,0 +1,33 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The interface {@code Vocabulary} is a complete table of exact counts, one for every distinct
+ * word counted, with the ids running from 0 to {@link #size()}. The buckets and the selection of
+ * the most frequent words run on it, so the counts can be kept on the heap in a
+ * {@link WordCounter} or outside of it in an {@link OffHeapWordCounter}.
+ */
+interface Vocabulary extends WordCounts {
+
+    /**
+     * @return the number of distinct words ever counted, including those whose count went back to 0
+     */
+    int size();
+
+    /**
+     * @return the sum of all counts
+     */
+    long total();
+
+    /**
+     * @return the number of words with a count of at least 1
+     */
+    int distinct();
+
+    /**
+     * @return the largest count of any word, 0 if there are no words
+     */
+    int maxCount();
+}
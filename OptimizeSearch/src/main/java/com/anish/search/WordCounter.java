@@ -0,0 +1,358 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code WordCounter} counts words in an open addressing hash table with
+ * primitive int counts. It replaces the {@code HashMap<String, Integer>} which boxed every
+ * count and looked each word up three times (containsKey, get and put).
+ *
+ * <p>Words are looked up directly by the characters in the tokenizer buffer, so incrementing
+ * the count of a word costs a single probe sequence and a {@code String} is only created the
+ * first time a word is seen. Every distinct word gets a dense id, in the order the words were
+ * first seen, which can be used to read the word and its count back.
+ *
+ * <p>The hash of a word is the same as {@link String#hashCode()}, so words added as strings
+ * and words added from a buffer end up in the same slot. A count which would pass
+ * {@link Integer#MAX_VALUE} throws an {@link ArithmeticException} rather than wrapping around to
+ * a negative count. An instance is not thread safe.
+ */
+final class WordCounter implements Vocabulary {
+    /** Initial number of slots in the table, always a power of two */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Marks an empty slot in the table */
+    private static final int EMPTY = -1;
+
+    /** Slots of the hash table holding the id of the word, or EMPTY */
+    private int[] table;
+
+    /** The words, indexed by id */
+    private String[] words;
+
+    /** The hash of each word, indexed by id. Kept so the table can grow without rehashing */
+    private int[] hashes;
+
+    /** The count of each word, indexed by id */
+    private int[] counts;
+
+    /** Number of distinct words */
+    private int size = 0;
+
+    /** Sum of all counts */
+    private long total = 0;
+
+    /** Number of words with a count of at least 1 */
+    private int distinct = 0;
+
+    WordCounter() {
+        this(INITIAL_CAPACITY >> 1);
+    }
+
+    /**
+     * @param expectedWords, the number of distinct words expected, used to size the table
+     */
+    WordCounter(int expectedWords) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (long) expectedWords << 1) {
+            capacity <<= 1;
+        }
+
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        words = new String[capacity >> 1];
+        hashes = new int[capacity >> 1];
+        counts = new int[capacity >> 1];
+    }
+
+    /**
+     * This method increments the count of the word held in the buffer by one
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     *
+     * @return the new count of the word
+     */
+    int increment(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                id = insert(slot, new String(chars, offset, length), hash);
+                return increment(id);
+            }
+
+            if (hashes[id] == hash && matches(words[id], chars, offset, length)) {
+                return increment(id);
+            }
+        }
+    }
+
+    /**
+     * This method looks up the word held in the buffer without counting it
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     *
+     * @return the id of the word, negative if it was never seen
+     */
+    int find(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY || (hashes[id] == hash && matches(words[id], chars, offset, length))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * This method adds delta to the count of the given word
+     *
+     * @param word,  the word to count
+     * @param delta, the amount to add to the count
+     *
+     * @return the new count of the word
+     */
+    int add(String word, int delta) {
+        return add(intern(word), delta);
+    }
+
+    /**
+     * This method adds delta to the count of the word with the given id
+     *
+     * @param id,    id of the word
+     * @param delta, the amount to add to the count, negative to take counts away
+     *
+     * @return the new count of the word
+     * @throws ArithmeticException, if the count overflows an int
+     */
+    int add(int id, int delta) {
+        int oldCount = counts[id];
+        counts[id] = Math.addExact(oldCount, delta);
+        total += delta;
+        if (oldCount == 0 && counts[id] != 0) {
+            distinct++;
+        } else if (oldCount != 0 && counts[id] == 0) {
+            distinct--;
+        }
+
+        return counts[id];
+    }
+
+    /**
+     * This method returns the id of the word, giving the word the next id with a count of 0 if
+     * it was never seen
+     *
+     * @param word, the word to look up
+     * @return the id of the word
+     */
+    int intern(String word) {
+        int id = idOf(word);
+        if (id == EMPTY) {
+            int hash = word.hashCode();
+            int mask = table.length - 1;
+            int slot = spread(hash) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+
+            id = insert(slot, word, hash);
+        }
+
+        return id;
+    }
+
+    /**
+     * This method adds the counts of the other counter to this one. Words new to this counter
+     * get their ids in the order of the other counter.
+     *
+     * @param other, the counter to add
+     */
+    void addAll(WordCounter other) {
+        for (int id = 0; id < other.size; id++) {
+            add(other.words[id], other.counts[id]);
+        }
+    }
+
+    /**
+     * This method sets the count of the given word back to 0. The word keeps its id.
+     *
+     * @param word, the word to reset
+     */
+    void reset(String word) {
+        int id = idOf(word);
+        if (id != EMPTY && counts[id] != 0) {
+            distinct--;
+            total -= counts[id];
+            counts[id] = 0;
+        }
+    }
+
+    /**
+     * @param word, the word to look up
+     * @return the count of the given word, 0 if it was never counted
+     */
+    int count(String word) {
+        int id = idOf(word);
+        return id == EMPTY ? 0 : counts[id];
+    }
+
+    /**
+     * @return the number of distinct words, which is also one more than the largest id
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the sum of all counts, i.e. the number of words counted
+     */
+    @Override
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return the number of words with a count of at least 1, which leaves out reset words
+     */
+    @Override
+    public int distinct() {
+        return distinct;
+    }
+
+    /**
+     * @param id, id of the word
+     * @return the word with the given id
+     */
+    @Override
+    public String word(int id) {
+        return words[id];
+    }
+
+    /**
+     * @param id, id of the word
+     * @return the count of the word with the given id
+     */
+    @Override
+    public int count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * @return the count of the most frequently occurring word, 0 if there are none
+     */
+    @Override
+    public int maxCount() {
+        int maxCount = 0;
+        for (int id = 0; id < size; id++) {
+            if (maxCount < counts[id]) {
+                maxCount = counts[id];
+            }
+        }
+
+        return maxCount;
+    }
+
+    private int increment(int id) {
+        int count = Math.incrementExact(counts[id]);
+        counts[id] = count;
+        total++;
+        if (count == 1) {
+            distinct++;
+        }
+
+        return count;
+    }
+
+    private int idOf(String word) {
+        int hash = word.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return EMPTY;
+            }
+
+            if (hashes[id] == hash && words[id].equals(word)) {
+                return id;
+            }
+        }
+    }
+
+    private int insert(int slot, String word, int hash) {
+        int id = size++;
+        if (id == words.length) {
+            words = Arrays.copyOf(words, id << 1);
+            hashes = Arrays.copyOf(hashes, id << 1);
+            counts = Arrays.copyOf(counts, id << 1);
+        }
+
+        words[id] = word;
+        hashes[id] = hash;
+        table[slot] = id;
+
+        // Keep the load factor at or below one half
+        if (size << 1 > table.length) {
+            grow();
+        }
+
+        return id;
+    }
+
+    private void grow() {
+        int[] larger = new int[table.length << 1];
+        Arrays.fill(larger, EMPTY);
+        int mask = larger.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (larger[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+
+            larger[slot] = id;
+        }
+
+        table = larger;
+    }
+
+    /**
+     * @return true, if the word has the characters held in the buffer
+     */
+    static boolean matches(String word, char[] chars, int offset, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the hash with its high bits mixed into the low bits used to pick a slot
+     */
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
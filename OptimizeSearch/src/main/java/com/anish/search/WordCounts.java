@@ -0,0 +1,24 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The interface {@code WordCounts} gives the word and the count for a word id. It lets the
+ * selection of the most frequent words run on any table of counts, the exact
+ * {@link WordCounter} as well as the counters of a sketch.
+ */
+interface WordCounts {
+
+    /**
+     * @param id, id of the word
+     * @return the word with the given id
+     */
+    String word(int id);
+
+    /**
+     * @param id, id of the word
+     * @return the count of the word with the given id
+     */
+    int count(int id);
+}
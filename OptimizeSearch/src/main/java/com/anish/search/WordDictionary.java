@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.tartarus.snowball.SnowballStemmer;
+
+/**
+ * The class {@code WordDictionary} turns the words handed over by the tokenizer into the dense
+ * int ids of the terms they are counted as, the word itself or its stem. Every distinct word is
+ * looked up once in the buffer of the tokenizer, and a string is created, the stop words are
+ * checked and the stemmer is run only the first time the word is seen. From then on the word
+ * costs a single lookup and the counting, the buckets and the selection of the top k work on the
+ * int ids alone. The terms are resolved into strings only for the words of the result.
+ *
+ * <p>The terms and their counts are kept in a {@link WordCounter} owned by the caller, which
+ * gives the terms their ids in the order they are first seen. Without a stemmer the stop words
+ * are added to it first, with a count of 0, so a word is a stop word if its id is below their
+ * number. With a stemmer a second counter maps every distinct word as it appears in the text to
+ * the id of its stem, and the stop words are the first words of that counter.
+ *
+ * <p>A dictionary belongs to a single search and is not thread safe.
+ */
+final class WordDictionary {
+    /** Marks a stop word */
+    private static final int STOP_WORD = -1;
+
+    /** The terms the words are counted as, stems if stemming */
+    private final WordCounter terms;
+
+    /** The words as found in the text, null if words are not stemmed */
+    private final WordCounter surfaces;
+
+    /** The term id of each word as found in the text, indexed by its id in surfaces */
+    private int[] termOf;
+
+    /** The stemmer owned by the search, null if words are not stemmed */
+    private final SnowballStemmer stemmer;
+
+    /** The stems shared by the searches of a searcher, null if not cached */
+    private final StemCache stemCache;
+
+    /** Number of stop words, they have the ids below it */
+    private final int stopWordCount;
+
+    /**
+     * @param terms,     the counter of the terms, with no words yet
+     * @param stopWords, the words which are not counted
+     * @param stemmer,   the stemmer owned by the search, null to count the words as they are
+     * @param stemCache, the cache of stems, null if not cached
+     */
+    WordDictionary(WordCounter terms, Collection<String> stopWords, SnowballStemmer stemmer,
+            StemCache stemCache) {
+        this.terms = terms;
+        this.surfaces = stemmer == null ? null : new WordCounter();
+        this.stemmer = stemmer;
+        this.stemCache = stemCache;
+
+        WordCounter stopWordIds = stemmer == null ? terms : surfaces;
+        for (String stopWord : stopWords) {
+            stopWordIds.intern(stopWord);
+        }
+        this.stopWordCount = stopWordIds.size();
+        this.termOf = new int[Math.max(stopWordCount, 16)];
+        Arrays.fill(termOf, STOP_WORD);
+    }
+
+    /**
+     * This method returns the id of the term the word held in the buffer is counted as
+     *
+     * @param chars,  the buffer holding the word
+     * @param offset, index of the first character of the word
+     * @param length, number of characters in the word
+     *
+     * @return the id of the term in the counter of the terms, negative for a stop word
+     */
+    int idOf(char[] chars, int offset, int length) {
+        if (stemmer == null) {
+            int id = terms.find(chars, offset, length);
+            if (id < 0) {
+                id = terms.intern(new String(chars, offset, length));
+            }
+
+            return id < stopWordCount ? STOP_WORD : id;
+        }
+
+        int surfaceId = surfaces.find(chars, offset, length);
+        if (surfaceId < 0) {
+            String word = new String(chars, offset, length);
+            surfaceId = surfaces.intern(word);
+            if (surfaceId == termOf.length) {
+                termOf = Arrays.copyOf(termOf, surfaceId << 1);
+            }
+
+            termOf[surfaceId] = terms.intern(stem(word, stemmer, stemCache));
+        }
+
+        return termOf[surfaceId];
+    }
+
+    /**
+     * @return the counter of the terms
+     */
+    WordCounter terms() {
+        return terms;
+    }
+
+    /**
+     * @param word,      the word to stem
+     * @param stemmer,   the stemmer owned by the caller
+     * @param stemCache, the cache of stems, null if not cached
+     * @return the stem of the word, taken from the stem cache when the word was seen before
+     */
+    static String stem(String word, SnowballStemmer stemmer, StemCache stemCache) {
+        if (stemCache != null) {
+            return stemCache.stem(word, stemmer);
+        }
+
+        stemmer.setCurrent(word);
+        return stemmer.stem() ? stemmer.getCurrent() : word;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The class {@code WordFrequencyAccumulator} counts the words of documents that keep coming in
+ * and answers the most frequent words of everything added so far at any time, without reading
+ * the earlier documents again. The words are found, stemmed and stop words dropped by the
+ * {@link FrequentWordSearcher} it is created with, which also decides the order of words with
+ * the same count.
+ *
+ * <p>The counts are kept sorted all the time in {@link LinkedFrequencyBuckets}, so counting a
+ * word costs O(1) however many words were counted before. Finding the top k words walks down
+ * from the most frequent bucket and only looks at the buckets that make it into the result.
+ *
+ * <p>A document is counted without holding the lock, so threads adding documents at the same
+ * time only wait for each other while the counts of a document are added up. An instance is
+ * thread safe.
+ */
+public final class WordFrequencyAccumulator {
+    /** The searcher counting every document */
+    private final FrequentWordSearcher searcher;
+
+    /** The words and their counts so far, it gives every word its id */
+    private final WordCounter wordFrequency = new WordCounter();
+
+    /** The ids of the words, sorted by their counts */
+    private final LinkedFrequencyBuckets frequencyBuckets = new LinkedFrequencyBuckets();
+
+    /**
+     * @param searcher, the searcher counting the documents
+     *
+     * @throws IllegalArgumentException, if searcher is null
+     */
+    public WordFrequencyAccumulator(FrequentWordSearcher searcher) {
+        if (searcher == null) {
+            throw new IllegalArgumentException("Valid searcher required to count the words");
+        }
+
+        this.searcher = searcher;
+    }
+
+    /**
+     * This method counts the words of the text and adds them to the counts so far
+     *
+     * @param text, the document to add, nothing is counted if it is empty
+     *
+     * @throws IllegalArgumentException, if text is null
+     */
+    public void add(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Valid text required to add to the counts");
+        }
+
+        WordCounter document = new WordCounter();
+        searcher.extractWordFrequency(document, text);
+        addAll(document);
+    }
+
+    /**
+     * This method counts the words of the text read from the reader and adds them to the counts
+     * so far. The reader is not closed.
+     *
+     * @param reader, the reader to read the document from
+     *
+     * @throws IllegalArgumentException, if reader is null
+     * @throws IOException, if the reader cannot be read
+     */
+    public void add(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new IllegalArgumentException("Valid reader required to add to the counts");
+        }
+
+        WordCounter document = new WordCounter();
+        searcher.extractWordFrequency(document, reader);
+        addAll(document);
+    }
+
+    /**
+     * This method returns the most frequent words of all the documents added so far
+     *
+     * @param numberOfFrequentWords, the number of most frequent words, none are returned if less than 1
+     *
+     * @return the k frequent words with their counts
+     */
+    public synchronized TopKResult topK(int numberOfFrequentWords) {
+        if (numberOfFrequentWords <= 0 || wordFrequency.distinct() == 0) {
+            return TopKResult.empty(wordFrequency.total(), wordFrequency.distinct());
+        }
+
+        int[] candidates = frequencyBuckets.candidates(numberOfFrequentWords);
+        return FrequentWordSearcher.heapSelectFrequentWords(wordFrequency, candidates,
+                candidates.length, numberOfFrequentWords, searcher.tieBreak());
+    }
+
+    /**
+     * This method returns the default number of most frequent words of the searcher
+     *
+     * @return the most frequent words with their counts
+     */
+    public TopKResult topK() {
+        return topK(searcher.numberOfFrequentWords());
+    }
+
+    /**
+     * @return the number of words counted so far, stop words excluded
+     */
+    public synchronized long totalTokenCount() {
+        return wordFrequency.total();
+    }
+
+    /**
+     * @return the number of distinct words counted so far, stop words excluded
+     */
+    public synchronized int distinctWordCount() {
+        return wordFrequency.distinct();
+    }
+
+    /**
+     * This method adds the counts of a document to the counts so far, in the order the words
+     * were first seen in the document
+     *
+     * @param document, the counted document
+     */
+    private synchronized void addAll(WordCounter document) {
+        for (int documentId = 0; documentId < document.size(); documentId++) {
+            int count = document.count(documentId);
+            if (count == 0) {
+                // A stop word that was counted and then dropped
+                continue;
+            }
+
+            int id = wordFrequency.intern(document.word(documentId));
+            int oldCount = wordFrequency.count(id);
+            frequencyBuckets.update(id, oldCount, wordFrequency.add(id, count));
+        }
+    }
+}
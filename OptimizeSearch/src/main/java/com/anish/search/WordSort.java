@@ -0,0 +1,126 @@
+/**
+ *
+ */
+package com.anish.search;
+
+/**
+ * The class {@code WordSort} sorts words alphabetically together with their ids, in two
+ * parallel arrays, e.g. to write a counter out in the order of its words. Sorting an
+ * {@code Integer[]} of ids with a comparator boxes every id and looks the words up again at
+ * every comparison; here the words are compared straight from the array and the ids are moved
+ * along with them, so the sort takes no memory besides the two arrays.
+ *
+ * <p>The sort is a quicksort with the median of three as pivot and an insertion sort for short
+ * ranges. It recurses into the shorter part only, so the stack stays O(log n) deep. The words
+ * are expected to be distinct, as the words of a counter are.
+ */
+final class WordSort {
+    /** Ranges up to this length are sorted by insertion */
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    private WordSort() {
+    }
+
+    /**
+     * This method returns the ids of the words of the vocabulary in the alphabetical order of
+     * their words
+     *
+     * @param vocabulary, the counter of words
+     * @return the ids of every word of the vocabulary, by {@link String#compareTo} of their words
+     */
+    static int[] alphabeticalIds(Vocabulary vocabulary) {
+        String[] words = new String[vocabulary.size()];
+        int[] ids = new int[words.length];
+        for (int id = 0; id < ids.length; id++) {
+            words[id] = vocabulary.word(id);
+            ids[id] = id;
+        }
+
+        sort(words, ids);
+        return ids;
+    }
+
+    /**
+     * This method sorts the words by {@link String#compareTo} and moves the id at the same index
+     * as a word along with it
+     *
+     * @param words, the distinct words to sort
+     * @param ids,   the ids of the words, at least as long as words
+     */
+    static void sort(String[] words, int[] ids) {
+        sort(words, ids, 0, words.length);
+    }
+
+    private static void sort(String[] words, int[] ids, int from, int to) {
+        while (to - from > INSERTION_SORT_LENGTH) {
+            int pivot = partition(words, ids, from, to);
+            if (pivot - from < to - pivot) {
+                sort(words, ids, from, pivot);
+                from = pivot + 1;
+            } else {
+                sort(words, ids, pivot + 1, to);
+                to = pivot;
+            }
+        }
+
+        insertionSort(words, ids, from, to);
+    }
+
+    /**
+     * This method moves the median of the first, middle and last word to its sorted place in
+     * the range, with the smaller words before it and the others after it
+     *
+     * @return the index of the median
+     */
+    private static int partition(String[] words, int[] ids, int from, int to) {
+        int last = to - 1;
+        int middle = (from + last) >>> 1;
+        if (words[middle].compareTo(words[from]) < 0) {
+            swap(words, ids, middle, from);
+        }
+        if (words[last].compareTo(words[from]) < 0) {
+            swap(words, ids, last, from);
+        }
+        if (words[last].compareTo(words[middle]) < 0) {
+            swap(words, ids, last, middle);
+        }
+
+        // The median waits at the end while the range before it is split
+        swap(words, ids, middle, last);
+        String pivot = words[last];
+        int store = from;
+        for (int i = from; i < last; i++) {
+            if (words[i].compareTo(pivot) < 0) {
+                swap(words, ids, i, store++);
+            }
+        }
+
+        swap(words, ids, store, last);
+        return store;
+    }
+
+    private static void insertionSort(String[] words, int[] ids, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            String word = words[i];
+            int id = ids[i];
+            int j = i - 1;
+            for (; j >= from && words[j].compareTo(word) > 0; j--) {
+                words[j + 1] = words[j];
+                ids[j + 1] = ids[j];
+            }
+
+            words[j + 1] = word;
+            ids[j + 1] = id;
+        }
+    }
+
+    private static void swap(String[] words, int[] ids, int i, int j) {
+        String word = words[i];
+        words[i] = words[j];
+        words[j] = word;
+
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
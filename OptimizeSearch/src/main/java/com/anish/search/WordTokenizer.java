@@ -0,0 +1,144 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The class {@code WordTokenizer} splits the text into lower cased words in a single pass
+ * over its characters. It replaces the old regex pipeline which cleaned the text, lower
+ * cased it and then split it, copying the whole text three times before counting started.
+ *
+ * <p>The rules are the same as before. Only the letters a-z and A-Z are kept, whitespace
+ * separates two words and every other character is dropped, so "don't" becomes "dont".
+ * Each word is handed to the {@link TokenSink} as soon as it ends.
+ *
+ * <p>The tokenizer keeps the partially read word between calls to {@link #feed(char[], int, int)}
+ * so the text can be fed in chunks. Call {@link #finish()} after the last chunk. An instance
+ * is not thread safe.
+ */
+final class WordTokenizer {
+    /** Size of the chunks copied out of a string */
+    private static final int CHUNK_SIZE = 8192;
+
+    /** The sink that receives every word */
+    private final TokenSink sink;
+
+    /** Holds the characters of the word being read */
+    private char[] token = new char[32];
+
+    /** Number of characters in {@link #token} */
+    private int length = 0;
+
+    WordTokenizer(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * This method tokenizes the whole string. The characters are copied out in small chunks
+     * so the string is never copied as a whole.
+     *
+     * @param text, the text to tokenize
+     */
+    void tokenize(final String text) {
+        tokenize(text, 0, text.length());
+    }
+
+    /**
+     * This method tokenizes the characters of the string between start and end. The range
+     * should start and end at a whitespace or at the ends of the string, otherwise the words
+     * at its edges are cut.
+     *
+     * @param text,  the text to tokenize
+     * @param start, index of the first character to read
+     * @param end,   index after the last character to read
+     */
+    void tokenize(final String text, int start, int end) {
+        char[] chunk = new char[Math.min(CHUNK_SIZE, end - start)];
+        for (int from = start; from < end; from += chunk.length) {
+            int to = Math.min(from + chunk.length, end);
+            text.getChars(from, to, chunk, 0);
+            feed(chunk, 0, to - from);
+        }
+
+        finish();
+    }
+
+    /**
+     * This method feeds the next chunk of characters to the tokenizer. A word which is not
+     * finished at the end of the chunk is continued by the next chunk.
+     *
+     * @param chars,  the buffer holding the characters
+     * @param offset, index of the first character to read
+     * @param count,  number of characters to read
+     */
+    void feed(char[] chars, int offset, int count) {
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            accept(chars[i]);
+        }
+    }
+
+    /**
+     * This method feeds the remaining bytes of the buffer to the tokenizer without decoding
+     * them into characters first. This works for ASCII and UTF-8 text because every byte of a
+     * multi-byte UTF-8 character is above 0x7F and is dropped like any other non letter. The
+     * position of the buffer is not changed.
+     *
+     * @param bytes, the buffer holding the text, e.g. a memory mapped file
+     */
+    void feed(ByteBuffer bytes) {
+        int end = bytes.limit();
+        for (int i = bytes.position(); i < end; i++) {
+            accept((char) (bytes.get(i) & 0xFF));
+        }
+    }
+
+    /**
+     * This method handles a single character
+     *
+     * @param c, the character read from the text
+     */
+    void accept(char c) {
+        if (c >= 'a' && c <= 'z') {
+            append(c);
+        } else if (c >= 'A' && c <= 'Z') {
+            append((char) (c + ('a' - 'A')));
+        } else if (isWhitespace(c)) {
+            if (length > 0) {
+                sink.onToken(token, length);
+                length = 0;
+            }
+        }
+    }
+
+    /**
+     * This method hands over the last word, if any. It has to be called once the whole
+     * text has been fed.
+     */
+    void finish() {
+        if (length > 0) {
+            sink.onToken(token, length);
+            length = 0;
+        }
+    }
+
+    private void append(char c) {
+        if (length == token.length) {
+            char[] larger = new char[length << 1];
+            System.arraycopy(token, 0, larger, 0, length);
+            token = larger;
+        }
+
+        token[length++] = c;
+    }
+
+    /**
+     * @param c, the character or byte to check
+     * @return true, if c separates two words
+     */
+    static boolean isWhitespace(int c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BatchTopKResultTest {
+
+    private final FrequentWordSearcher searcher = FrequentWordSearcher.builder().build();
+
+    @Test
+    public void testDocumentsAndCorpus() {
+        BatchTopKResult batch = searcher.findTopK(Arrays.asList("evernote anish evernote", "", "anish the best anish"), 1);
+
+        assertEquals("Incorrect number of documents", 3, batch.size());
+        assertEquals("Incorrect first document", Arrays.asList("evernote"), batch.document(0).words());
+        assertEquals("Empty document has no words", 0, batch.document(1).totalTokenCount());
+        assertEquals("Incorrect last document", Arrays.asList("anish"), batch.document(2).words());
+        assertEquals("Incorrect corpus", Arrays.asList("anish"), batch.corpus().words());
+        assertArrayEquals("Incorrect corpus count", new long[] {3}, batch.corpus().counts());
+        assertEquals("Incorrect corpus total", 6, batch.corpus().totalTokenCount());
+        assertEquals("Same batch should give an equal result", batch,
+                searcher.findTopK(Arrays.asList("evernote anish evernote", "", "anish the best anish"), 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDocumentsAreUnmodifiable() {
+        searcher.findTopK(Arrays.asList("evernote"), 1).documents().set(0, null);
+    }
+}
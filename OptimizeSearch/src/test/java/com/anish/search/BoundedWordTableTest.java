@@ -0,0 +1,66 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoundedWordTableTest {
+
+    @Test
+    public void testFindByStringAndBuffer() {
+        BoundedWordTable table = new BoundedWordTable(4);
+        table.put(2, "evernote", "evernote".hashCode());
+
+        char[] buffer = " evernote ".toCharArray();
+        assertEquals("Cannot find the word", 2, table.find("evernote", "evernote".hashCode()));
+        assertEquals("Cannot find the word in the buffer", 2, table.find(buffer, 1, 8, "evernote".hashCode()));
+        assertTrue("Found a word never added", table.find("anish", "anish".hashCode()) < 0);
+    }
+
+    @Test
+    public void testGrowsUpToItsCapacity() {
+        BoundedWordTable table = new BoundedWordTable(1 << 28);
+        for (int id = 0; id < 1000; id++) {
+            table.put(id, TestWords.word(id), TestWords.word(id).hashCode());
+        }
+
+        assertEquals("Incorrect capacity", 1 << 28, table.capacity());
+        for (int id = 0; id < 1000; id++) {
+            assertEquals("Lost " + TestWords.word(id), id, table.find(TestWords.word(id), TestWords.word(id).hashCode()));
+            assertEquals("Incorrect word", TestWords.word(id), table.word(id));
+        }
+    }
+
+    @Test
+    public void testRemoveKeepsOtherWordsReachable() {
+        Random random = new Random(42);
+        int capacity = 64;
+        BoundedWordTable table = new BoundedWordTable(capacity);
+        String[] words = new String[capacity];
+        int next = 0;
+
+        for (int i = 0; i < 10000; i++) {
+            int id = random.nextInt(capacity);
+            if (words[id] != null) {
+                table.remove(id);
+                assertTrue("Removed word still found", table.find(words[id], words[id].hashCode()) < 0);
+            }
+
+            // Few hash bits set, so the words collide and form long runs of slots
+            words[id] = "w" + (char) ('a' + next % 26) + (char) ('a' + next / 26 % 26) + (char) ('a' + next / 676);
+            next++;
+            table.put(id, words[id], words[id].hashCode() & 0x1f);
+
+            for (int other = 0; other < capacity; other++) {
+                if (words[other] != null) {
+                    assertEquals("Lost " + words[other], other, table.find(words[other], words[other].hashCode() & 0x1f));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void testExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1 << 12, 4, 3);
+        for (String word : "beta alpha beta gamma beta alpha delta".split(" ")) {
+            sketch.offer(word.toCharArray(), 0, word.length());
+        }
+
+        TopKResult result = sketch.topK(2, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Incorrect words", Arrays.asList("beta", "alpha"), result.words());
+        assertArrayEquals("Incorrect counts", new long[] {3, 2}, result.counts());
+        assertEquals("Incorrect estimate of a word which is no candidate", 1, sketch.estimate("delta"));
+        assertEquals("Incorrect estimate of a word never seen", 0, sketch.estimate("evernote"));
+        assertEquals("Incorrect total", 7, result.totalTokenCount());
+        assertFalse("Counted in a sketch", result.isExact());
+    }
+
+    @Test
+    public void testEstimatesNeverBelowTrueCount() {
+        Random random = new Random(42);
+        CountMinSketch sketch = new CountMinSketch(256, 4, 10);
+        WordCounter exact = new WordCounter();
+
+        for (int i = 0; i < 100000; i++) {
+            // Zipf like, a few words are very frequent and most are rare
+            String word = TestWords.word(TestWords.zipf(random, 5000));
+            exact.add(word, 1);
+            if (i % 2 == 0) {
+                sketch.offer(word);
+            } else {
+                char[] buffer = (" " + word + " ").toCharArray();
+                sketch.offer(buffer, 1, word.length());
+            }
+        }
+
+        int withinBound = 0;
+        for (int id = 0; id < exact.size(); id++) {
+            long estimate = sketch.estimate(exact.word(id));
+            assertTrue("Estimate below the true count", estimate >= exact.count(id));
+            if (estimate - exact.count(id) <= sketch.errorBound()) {
+                withinBound++;
+            }
+        }
+        assertTrue("Too many estimates above the error bound", withinBound > exact.size() * 0.95);
+
+        TopKResult result = sketch.topK(10, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Incorrect most frequent word", TestWords.word(0), result.word(0));
+        for (int rank = 0; rank < result.size(); rank++) {
+            assertEquals("Result should hold the estimate", sketch.estimate(result.word(rank)), result.count(rank));
+            assertTrue("Counts should be ordered", rank == 0 || result.count(rank) <= result.count(rank - 1));
+        }
+    }
+
+    @Test
+    public void testEvictedWordKeepsItsCount() {
+        CountMinSketch sketch = new CountMinSketch(1 << 12, 4, 1);
+        for (int i = 0; i < 5; i++) {
+            sketch.offer("anish");
+        }
+        for (int i = 0; i < 6; i++) {
+            sketch.offer("evernote");
+        }
+        sketch.offer("anish");
+        sketch.offer("anish");
+
+        TopKResult result = sketch.topK(1, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Evicted word should come back with its count", Arrays.asList("anish"), result.words());
+        assertArrayEquals("Incorrect count", new long[] {7}, result.counts());
+    }
+
+    @Test
+    public void testNoWords() {
+        CountMinSketch sketch = new CountMinSketch(64, 2, 0);
+        sketch.offer("evernote");
+        assertEquals("No words were asked for", 0, sketch.topK(0, TieBreak.FIRST_OCCURRENCE).size());
+        assertEquals("No words were counted", 0, new CountMinSketch(64, 2, 3).topK(3, TieBreak.FIRST_OCCURRENCE).size());
+    }
+
+    @Test
+    public void testCandidatesGrowWithTheWords() {
+        CountMinSketch sketch = new CountMinSketch(1 << 12, 4, Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            sketch.offer(TestWords.word(i));
+        }
+
+        TopKResult result = sketch.topK(Integer.MAX_VALUE, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Every word should be a candidate", 100, result.size());
+        assertEquals("The distinct count is the number of candidates", 100, result.distinctWordCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRows() {
+        new CountMinSketch(64, 0, 3);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DirectIntArrayTest {
+
+    @Test
+    public void testGrowKeepsContents() {
+        DirectIntArray array = new DirectIntArray(10);
+        for (int i = 0; i < 10; i++) {
+            array.set(i, i * 7);
+        }
+
+        array.grow(1000);
+        assertTrue("Array should have grown", array.length() >= 1000);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Contents lost while growing", i * 7, array.get(i));
+        }
+        assertEquals("New ints should be 0", 0, array.get(999));
+    }
+
+    @Test
+    public void testMoreThanOneChunk() {
+        long length = (1 << 22) + 100;
+        DirectIntArray array = new DirectIntArray(16);
+        array.set(3, 42);
+        array.grow(length);
+        assertTrue("Array should hold every int", array.length() >= length);
+
+        array.set(length - 1, -1);
+        array.set(1 << 22, 5);
+        assertEquals("Incorrect int in the first chunk", 42, array.get(3));
+        assertEquals("Incorrect int in the second chunk", 5, array.get(1 << 22));
+        assertEquals("Incorrect last int", -1, array.get(length - 1));
+
+        array.fill(9);
+        assertEquals("Fill should reach every chunk", 9, array.get(length - 1));
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FrequencyBucketsTest {
+
+    @Test
+    public void testWordsAreRankedByFrequencyThenFirstSeen() {
+        WordCounter wordFrequency = new WordCounter();
+        wordFrequency.add("best", 1);
+        wordFrequency.add("anish", 3);
+        wordFrequency.add("evernote", 3);
+        wordFrequency.add("product", 2);
+
+        FrequencyBuckets freqBuckets = FrequencyBuckets.sort(wordFrequency, 3);
+        assertEquals("Incorrect number of words", 4, freqBuckets.size());
+
+        String[] ranked = new String[freqBuckets.size()];
+        for (int rank = 0; rank < ranked.length; rank++) {
+            ranked[rank] = wordFrequency.word(freqBuckets.idByRank(rank));
+        }
+        assertArrayEquals("Incorrect order", new String[] {"anish", "evernote", "product", "best"}, ranked);
+    }
+
+    @Test
+    public void testWordsCountedZeroTimesAreSkipped() {
+        WordCounter wordFrequency = new WordCounter();
+        wordFrequency.add("the", 5);
+        wordFrequency.add("anish", 2);
+        wordFrequency.add("evernote", 2);
+        wordFrequency.reset("the");
+
+        FrequencyBuckets freqBuckets = FrequencyBuckets.sort(wordFrequency, 2);
+        assertEquals("Incorrect number of words", 2, freqBuckets.size());
+        assertEquals("Stop word should be in bucket 0", 1, freqBuckets.bucketSize(0));
+        assertEquals("Incorrect result", Arrays.asList("anish", "evernote"),
+                FrequentWordSearcher.getMostFrequentWords(freqBuckets, wordFrequency, 10, TieBreak.FIRST_OCCURRENCE).words());
+    }
+
+    @Test
+    public void testSparseBucketsOnlyHoldFrequenciesThatOccur() {
+        WordCounter wordFrequency = new WordCounter();
+        wordFrequency.add("the", 7);
+        wordFrequency.add("best", 5);
+        wordFrequency.add("anish", 1000000000);
+        wordFrequency.add("evernote", 300000000);
+        wordFrequency.add("product", 5);
+        wordFrequency.reset("the");
+
+        FrequencyBuckets freqBuckets = FrequencyBuckets.sortSparse(wordFrequency);
+        assertEquals("Incorrect largest frequency", 1000000000, freqBuckets.maxFreq());
+        assertEquals("Incorrect number of words", 4, freqBuckets.size());
+        assertEquals("Incorrect bucket size", 2, freqBuckets.bucketSize(5));
+        assertEquals("Frequency should have no bucket", 0, freqBuckets.bucketSize(6));
+        assertEquals("Incorrect result", Arrays.asList("anish", "evernote", "best", "product"),
+                FrequentWordSearcher.getMostFrequentWords(freqBuckets, wordFrequency, 10, TieBreak.FIRST_OCCURRENCE).words());
+    }
+
+    @Test
+    public void testSparseBucketsMatchDenseBuckets() {
+        Random random = new Random(42);
+        WordCounter wordFrequency = new WordCounter();
+        for (int i = 0; i < 5000; i++) {
+            wordFrequency.add("word" + i, 1 + random.nextInt(100000));
+        }
+
+        FrequencyBuckets dense = FrequencyBuckets.sort(wordFrequency, wordFrequency.maxCount());
+        FrequencyBuckets sparse = FrequencyBuckets.sortSparse(wordFrequency);
+        assertEquals("Incorrect number of words", dense.size(), sparse.size());
+        for (int rank = 0; rank < dense.size(); rank++) {
+            assertEquals("Different word at rank " + rank, dense.idByRank(rank), sparse.idByRank(rank));
+        }
+    }
+
+    @Test
+    public void testRadixSort() {
+        Random random = new Random(42);
+        int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        values[0] = 0;
+        values[1] = Integer.MAX_VALUE;
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        FrequencyBuckets.radixSort(values);
+        assertArrayEquals("Values not sorted", expected, values);
+    }
+}
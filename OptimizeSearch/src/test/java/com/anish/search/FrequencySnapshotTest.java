@@ -0,0 +1,161 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrequencySnapshotTest {
+    private static final FrequentWordSearcher searcher =
+            FrequentWordSearcher.builder().tieBreak(TieBreak.LEXICOGRAPHIC).build();
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("snapshot");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testTopKMatchesSearch() throws IOException {
+        String text = text(new Random(42), 20000);
+        for (String language : new String[] {null, "english"}) {
+            FrequentWordSearcher lexicographic =
+                    FrequentWordSearcher.builder().language(language).tieBreak(TieBreak.LEXICOGRAPHIC).build();
+            FrequencySnapshot snapshot = lexicographic.snapshot(text);
+            assertEquals("Reader should give the same snapshot",
+                    snapshot.findTopK(100), lexicographic.snapshot(new StringReader(text)).findTopK(100));
+
+            for (int k : new int[] {0, 1, 10, 1000, 100000}) {
+                assertEquals("Snapshot should select the same words as the search",
+                        lexicographic.findTopK(text, k), snapshot.findTopK(k));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        String text = text(new Random(7), 20000);
+        WordCounter expected = new WordCounter();
+        searcher.extractWordFrequency(expected, text);
+
+        Path path = directory.resolve("words.snapshot");
+        FrequencySnapshot written = searcher.snapshot(text);
+        written.write(path);
+        assertEquals("Incorrect size of the file", written.sizeInBytes(), Files.size(path));
+
+        FrequencySnapshot loaded = FrequencySnapshot.load(path);
+        loaded.verify();
+        assertEquals("Incorrect total", expected.total(), loaded.totalTokenCount());
+        assertEquals("Incorrect number of distinct words", expected.distinct(), loaded.distinctWordCount());
+        assertEquals("Loaded snapshot should select the same words", written.findTopK(50), loaded.findTopK(50));
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals("Incorrect count of " + expected.word(id), expected.count(id), loaded.count(expected.word(id)));
+        }
+        assertEquals("Word never counted should have no count", 0, loaded.count("zzzz"));
+        assertEquals("Word never counted should have no count", 0, loaded.count(""));
+    }
+
+    @Test
+    public void testMerge() throws IOException {
+        Random random = new Random(11);
+        String first = text(random, 10000);
+        String second = text(random, 10000);
+        FrequencySnapshot expected = searcher.snapshot(first + " " + second);
+
+        Path path = directory.resolve("words.snapshot");
+        searcher.snapshot(first).write(path);
+        FrequencySnapshot merged = FrequencySnapshot.load(path).merge(searcher.snapshot(second));
+        merged.write(path);
+
+        FrequencySnapshot loaded = FrequencySnapshot.load(path);
+        assertEquals("Incorrect total", expected.totalTokenCount(), loaded.totalTokenCount());
+        assertEquals("Incorrect number of distinct words", expected.distinctWordCount(), loaded.distinctWordCount());
+        assertEquals("Merged snapshot should count like the joined text", expected.findTopK(1000), loaded.findTopK(1000));
+        assertEquals("Merging should be symmetric", expected.findTopK(1000),
+                searcher.snapshot(second).merge(searcher.snapshot(first)).findTopK(1000));
+    }
+
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        FrequencySnapshot snapshot = searcher.snapshot("the and of");
+        assertEquals("Stop words should not be counted", 0, snapshot.distinctWordCount());
+        assertEquals("Empty snapshot has no words", 0, snapshot.findTopK(10).size());
+        assertEquals("Empty snapshot has no counts", 0, snapshot.count("evernote"));
+
+        Path path = directory.resolve("empty.snapshot");
+        snapshot.write(path);
+        assertEquals("Merging an empty snapshot should change nothing", searcher.snapshot("evernote anish evernote").findTopK(2),
+                FrequencySnapshot.load(path).merge(searcher.snapshot("evernote anish evernote")).findTopK(2));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshot() throws IOException {
+        Path path = directory.resolve("words.snapshot");
+        searcher.snapshot(text(new Random(3), 1000)).write(path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        FrequencySnapshot.load(path).verify();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptHeader() throws IOException {
+        Path path = directory.resolve("words.snapshot");
+        searcher.snapshot(text(new Random(3), 1000)).write(path);
+
+        // The last byte of the number of words counted
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[15] ^= 1;
+        Files.write(path, bytes);
+
+        FrequencySnapshot snapshot = FrequencySnapshot.load(path);
+        snapshot.verify();
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Path path = directory.resolve("words.txt");
+        Files.write(path, "evernote anish evernote".getBytes("UTF-8"));
+        FrequencySnapshot.load(path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeNull() {
+        searcher.snapshot("evernote").merge(null);
+    }
+
+    /**
+     * @return a text of words with skewed counts, many of them sharing a prefix
+     */
+    private static String text(Random random, int numberOfWords) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numberOfWords; i++) {
+            int word = (int) Math.pow(3000, random.nextDouble());
+            builder.append("w").append((char) ('a' + word % 26)).append((char) ('a' + word / 26 % 26))
+                    .append((char) ('a' + word / 676)).append(word % 4 == 0 ? "ing " : " ");
+        }
+
+        return builder.toString();
+    }
+}
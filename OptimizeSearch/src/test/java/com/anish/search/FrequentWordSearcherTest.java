@@ -11,10 +11,20 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.BeforeClass;
@@ -36,6 +46,8 @@ public class FrequentWordSearcherTest {
     private static List<String> wordsToCompare = new ArrayList<String>();
     private static final String LANGUAGE = "english";
 
+    private static final FrequentWordSearcher searcher = FrequentWordSearcher.builder().build();
+
     @BeforeClass
     public static void setup() throws IOException {
         InputStream inputStream = 
@@ -55,7 +67,7 @@ public class FrequentWordSearcherTest {
     @Test
     public void testWordFrequencyForStemmer() {
         wordsToCompare.add("evernot");
-        wordsToCompare.add("team");
+        wordsToCompare.add("product");
 
         FrequentWordSearcher.switchOnWordStemmer(LANGUAGE);
         List<String> mostFrequentWords = FrequentWordSearcher.getMostFrequentWords(textBlob, 2);
@@ -81,7 +93,7 @@ public class FrequentWordSearcherTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testWordFrequencyForNullInput() {
-        FrequentWordSearcher.getMostFrequentWords(null, 2);
+        FrequentWordSearcher.getMostFrequentWords((String) null, 2);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -101,6 +113,94 @@ public class FrequentWordSearcherTest {
         assertTrue("List is not empty", emptyList.isEmpty());
     }
 
+    @Test
+    public void testWordFrequencyForReader() throws IOException {
+        List<String> mostFrequentWords = FrequentWordSearcher.getMostFrequentWords(new StringReader(textBlob), 2);
+        assertEquals("Reader should give the same words as the text", 
+                FrequentWordSearcher.getMostFrequentWords(textBlob, 2), mostFrequentWords);
+    }
+
+    @Test
+    public void testWordFrequencyForPath() throws IOException {
+        List<String> mostFrequentWords = FrequentWordSearcher.getMostFrequentWords(Paths.get(pathToDataFile), 1);
+        assertEquals("Cannot find the most frequent word", "evernote", mostFrequentWords.get(0));
+    }
+
+    @Test
+    public void testextractWordFrequencyForMappedSegments() throws IOException {
+        WordCounter expected = new WordCounter();
+        WordCounter mapped = new WordCounter();
+
+        Path path = Paths.get(pathToDataFile);
+        int expectedMaxFreq = searcher.extractWordFrequency(expected, path, Integer.MAX_VALUE);
+        int maxFreq = searcher.extractWordFrequency(mapped, path, 7);
+
+        assertEquals("Max occuring freq does not match the input", expectedMaxFreq, maxFreq);
+        assertEquals("Words split across segments were not stitched", expected.size(), mapped.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals("Words split across segments were not stitched",
+                    expected.count(id), mapped.count(expected.word(id)));
+        }
+    }
+
+    @Test
+    public void testParallelCountMatchesSequential() throws Exception {
+        assertParallelCountMatchesSequential(searcher);
+        assertParallelCountMatchesSequential(FrequentWordSearcher.builder().language(LANGUAGE).build());
+    }
+
+    private static void assertParallelCountMatchesSequential(FrequentWordSearcher searcher) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append(textBlob).append('\n').append(TestWords.word(i)).append(' ');
+        }
+        String text = builder.toString();
+
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("extractWordFrequency", WordCounter.class, String.class);
+        method.setAccessible(true);
+        WordCounter expected = new WordCounter();
+        method.invoke(searcher, expected, text);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WordCounter parallel = searcher.countInParallel(text, pool, 64);
+            assertEquals("Parallel count found different words", expected.size(), parallel.size());
+            for (int id = 0; id < expected.size(); id++) {
+                assertEquals("Parallel count gave a different id", expected.word(id), parallel.word(id));
+                assertEquals("Parallel count gave a different count", expected.count(id), parallel.count(id));
+            }
+
+            assertEquals("Parallel search gave different words", searcher.findMostFrequentWords(text, 5),
+                    searcher.findMostFrequentWords(text, 5, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelFileCountMatchesSequential() throws IOException {
+        WordCounter expected = new WordCounter();
+        Path path = Paths.get(pathToDataFile);
+        searcher.extractWordFrequency(expected, path, Integer.MAX_VALUE);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WordCounter parallel = searcher.countInParallel(path, pool, 16);
+            assertEquals("Parallel count found different words", expected.size(), parallel.size());
+            for (int id = 0; id < expected.size(); id++) {
+                assertEquals("Parallel count gave a different id", expected.word(id), parallel.word(id));
+                assertEquals("Parallel count gave a different count", expected.count(id), parallel.count(id));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWordFrequencyForNullReader() throws IOException {
+        FrequentWordSearcher.getMostFrequentWords((Reader) null, 2);
+    }
+
     @Test
     public void testInitializeStemmer() {
         assertFalse("Stemmer is initialized without calling it", 
@@ -119,82 +219,138 @@ public class FrequentWordSearcherTest {
                 FrequentWordSearcher.isStemmerInitialized());
     }
 
+    @Test
+    public void testSearcherWithCustomStopWords() {
+        FrequentWordSearcher customSearcher = FrequentWordSearcher.builder()
+                .stopWords(Arrays.asList("evernote"))
+                .numberOfFrequentWords(1)
+                .build();
+
+        assertFalse("Searcher should not stem", customSearcher.usesStemmer());
+        assertEquals("Cannot find the most frequent word", Arrays.asList("the"),
+                customSearcher.findMostFrequentWords("the evernote evernote the"));
+    }
+
+    @Test
+    public void testStemmingAfterCountingMatchesStemmingPerWord() throws Exception {
+        FrequentWordSearcher perWord = FrequentWordSearcher.builder().language(LANGUAGE).build();
+        FrequentWordSearcher afterCounting = FrequentWordSearcher.builder().language(LANGUAGE)
+                .stemmingStrategy(StemmingStrategy.AFTER_COUNTING).stemCacheSize(0).build();
+
+        String text = textBlob + " Teams team TEAMS individual";
+        assertEquals("Stemming strategies gave different words", perWord.findMostFrequentWords(text, 100),
+                afterCounting.findMostFrequentWords(text, 100));
+        assertEquals("Stemming strategies gave different words", perWord.findMostFrequentWords(Paths.get(pathToDataFile), 100),
+                afterCounting.findMostFrequentWords(Paths.get(pathToDataFile), 100));
+        assertParallelCountMatchesSequential(afterCounting);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearcherWithUnknownLanguage() {
+        FrequentWordSearcher.builder().language("breakit").build();
+    }
+
+    @Test
+    public void testConcurrentSearchesWithStemmer() throws Exception {
+        final FrequentWordSearcher stemmingSearcher = FrequentWordSearcher.builder().language(LANGUAGE).build();
+        final List<String> expected = stemmingSearcher.findMostFrequentWords(textBlob, 5);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        return stemmingSearcher.findMostFrequentWords(textBlob, 5);
+                    }
+                }));
+            }
+
+            for (Future<List<String>> result : results) {
+                assertEquals("Concurrent searches gave different words", expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testextractWordFrequency() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-        Method method = FrequentWordSearcher.class.getDeclaredMethod("extractWordFrequency", Map.class, String[].class);
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("extractWordFrequency", WordCounter.class, String.class);
         method.setAccessible(true);
 
-        Map<String, Integer> testWordCount = new HashMap<String, Integer>();
-        String[] words = new String[] {"anish", "anish", "evernote", "anish"};
+        WordCounter testWordCount = new WordCounter();
+        String words = "Anish, anish\nevernote  ANISH!";
 
         Object[] parameters = new Object[2];
         parameters[0] = testWordCount;
         parameters[1] = words;
 
-        int maxFreq = (int) method.invoke(null, parameters);
+        int maxFreq = (int) method.invoke(searcher, parameters);
         assertEquals("Max occuring freq does not match the input", maxFreq, 3);
+        assertEquals("Word count does not match the input", 1, testWordCount.count("evernote"));
     }
 
     @Test
     public void testextractWordFrequencyForEmptyWords() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-        Method method = FrequentWordSearcher.class.getDeclaredMethod("extractWordFrequency", Map.class, String[].class);
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("extractWordFrequency", WordCounter.class, String.class);
         method.setAccessible(true);
 
-        Map<String, Integer> testWordCount = new HashMap<String, Integer>();
-        String[] words = new String[2];
+        WordCounter testWordCount = new WordCounter();
+        String words = " 2007, ... ";
 
         Object[] parameters = new Object[2];
         parameters[0] = testWordCount;
         parameters[1] = words;
 
-        int maxFreq = (int) method.invoke(null, parameters);
+        int maxFreq = (int) method.invoke(searcher, parameters);
         assertEquals("Max occuring freq does not match the input", maxFreq, 0);
 
         words = null;
         parameters[1] = words;
-        maxFreq = (int) method.invoke(null, parameters);
+        maxFreq = (int) method.invoke(searcher, parameters);
         assertEquals("Max occuring freq does not match the input", maxFreq, 0);
     }
 
     @Test
     public void testbucketSortFrequency() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-        Method method = FrequentWordSearcher.class.getDeclaredMethod("bucketSortFrequency", Map.class, int.class);
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("bucketSortFrequency", Vocabulary.class, int.class);
         method.setAccessible(true);
 
-        Map<String, Integer> testWordCount = new HashMap<String, Integer>();
-        testWordCount.put("anish", 3);
-        testWordCount.put("evernote", 1);
-        testWordCount.put("best", 1);
+        WordCounter testWordCount = new WordCounter();
+        testWordCount.add("anish", 3);
+        testWordCount.add("evernote", 1);
+        testWordCount.add("best", 1);
 
         Object[] parameters = new Object[2];
         parameters[0] = testWordCount;
         parameters[1] = 3;
 
-        @SuppressWarnings("unchecked")
-        List<List<String>> freqBuckets = (List<List<String>>) method.invoke(null, parameters);
-        assertNotNull("This list is null when it should have had 3 buckets", freqBuckets);
+        FrequencyBuckets freqBuckets = (FrequencyBuckets) method.invoke(null, parameters);
+        assertNotNull("The buckets are null when there should have been 3", freqBuckets);
+        assertEquals("Incorrect number of buckets", 3, freqBuckets.maxFreq());
+        assertEquals("Incorrect number of words", 3, freqBuckets.size());
 
-        List<String> firstBucket = freqBuckets.get(0);
-        assertTrue("Does not contain the required word", firstBucket.contains("best"));
-        assertTrue("Does not contain the required word", firstBucket.contains("evernote"));
+        assertEquals("Incorrect first bucket size", 2, freqBuckets.bucketSize(1));
+        assertEquals("Does not contain the required word", "best", testWordCount.word(freqBuckets.id(1, 0)));
+        assertEquals("Does not contain the required word", "evernote", testWordCount.word(freqBuckets.id(1, 1)));
 
-        List<String> secondBucket = freqBuckets.get(1);
-        assertNull("Second bucket should have been null", secondBucket);
+        assertEquals("Second bucket should have been empty", 0, freqBuckets.bucketSize(2));
 
-        List<String> thirdBucket = freqBuckets.get(2);
-        assertTrue("Does not contain the required word", thirdBucket.contains("anish"));
+        assertEquals("Incorrect third bucket size", 1, freqBuckets.bucketSize(3));
+        assertEquals("Does not contain the required word", "anish", testWordCount.word(freqBuckets.id(3, 0)));
     }
 
-
     @Test
     public void testbucketSortFrequencyFor0FreqWord() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-        Method method = FrequentWordSearcher.class.getDeclaredMethod("bucketSortFrequency", Map.class, int.class);
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("bucketSortFrequency", Vocabulary.class, int.class);
         method.setAccessible(true);
 
-        Map<String, Integer> testWordCount = new HashMap<String, Integer>();
-        testWordCount.put("anish", 3);
-        testWordCount.put("evernote", 1);
-        testWordCount.put("best", 1);
+        WordCounter testWordCount = new WordCounter();
+        testWordCount.add("anish", 3);
+        testWordCount.add("evernote", 1);
+        testWordCount.add("best", 1);
 
         Object[] parameters = new Object[2];
         parameters[0] = testWordCount;
@@ -209,28 +365,221 @@ public class FrequentWordSearcherTest {
 
     @Test
     public void getMostFrequentWords() throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-        Method method = FrequentWordSearcher.class.getDeclaredMethod("getMostFrequentWords", List.class, int.class, int.class);
+        Method method = FrequentWordSearcher.class.getDeclaredMethod("getMostFrequentWords", FrequencyBuckets.class, Vocabulary.class, int.class, TieBreak.class);
         method.setAccessible(true);
 
-        List<List<String>> testArray = new ArrayList<List<String>>();
-
-        List<String> bucket = new ArrayList<String>();
-        bucket.add("evernote");
-        bucket.add("best");
-        testArray.add(0, bucket);
+        WordCounter testWordCount = new WordCounter();
+        testWordCount.add("evernote", 1);
+        testWordCount.add("best", 1);
+        testWordCount.add("anish", 2);
 
-        bucket = new ArrayList<String>();
-        bucket.add("anish");
-        testArray.add(1, bucket);
-
-        Object[] parameters = new Object[3];
-        parameters[0] = testArray;
-        parameters[1] = 2;
+        Object[] parameters = new Object[4];
+        parameters[0] = FrequentWordSearcher.bucketSortFrequency(testWordCount, 2);
+        parameters[1] = testWordCount;
         parameters[2] = 1;
+        parameters[3] = TieBreak.FIRST_OCCURRENCE;
 
-        List<String> mostFrequentWord = (List<String>) method.invoke(null, parameters);
+        TopKResult mostFrequentWord = (TopKResult) method.invoke(null, parameters);
         assertTrue("Incorrect list size, expected 1 ", mostFrequentWord.size() == 1);
-        assertTrue("Incorrect word", "anish".equals(mostFrequentWord.get(0)));
+        assertTrue("Incorrect word", "anish".equals(mostFrequentWord.word(0)));
+        assertEquals("Incorrect count", 2, mostFrequentWord.count(0));
+    }
+
+    @Test
+    public void testHeapSelectionMatchesBuckets() throws Exception {
+        Method heapSelect = FrequentWordSearcher.class.getDeclaredMethod("heapSelectFrequentWords", Vocabulary.class, int.class, TieBreak.class);
+        heapSelect.setAccessible(true);
+        Method bucketSort = FrequentWordSearcher.class.getDeclaredMethod("bucketSortFrequency", Vocabulary.class, int.class);
+        bucketSort.setAccessible(true);
+        Method bucketSelect = FrequentWordSearcher.class.getDeclaredMethod("getMostFrequentWords", FrequencyBuckets.class, Vocabulary.class, int.class, TieBreak.class);
+        bucketSelect.setAccessible(true);
+
+        Random random = new Random(42);
+        WordCounter testWordCount = new WordCounter();
+        for (int i = 0; i < 500; i++) {
+            testWordCount.add("word" + i, 1 + random.nextInt(20));
+        }
+        testWordCount.reset("word7");
+        int maxFreq = testWordCount.maxCount();
+
+        for (TieBreak tieBreak : TieBreak.values()) {
+            for (int k : new int[] {1, 5, 64, 499, 1000}) {
+                Object freqBucket = bucketSort.invoke(null, testWordCount, maxFreq);
+                assertEquals("Heap and buckets selected different words for k = " + k + " and " + tieBreak,
+                        bucketSelect.invoke(null, freqBucket, testWordCount, k, tieBreak),
+                        heapSelect.invoke(null, testWordCount, k, tieBreak));
+            }
+        }
+    }
+
+    @Test
+    public void testTieBreak() {
+        String text = "zeta alpha beta alpha zeta gamma";
+        assertEquals("Incorrect first occurrence order", Arrays.asList("zeta", "alpha", "beta"),
+                FrequentWordSearcher.builder().build().findMostFrequentWords(text, 3));
+        assertEquals("Incorrect lexicographic order", Arrays.asList("alpha", "zeta", "beta"),
+                FrequentWordSearcher.builder().tieBreak(TieBreak.LEXICOGRAPHIC).build().findMostFrequentWords(text, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTieBreak() {
+        FrequentWordSearcher.builder().tieBreak(null);
+    }
+
+    @Test
+    public void testApproximateCountingModes() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("the evernote ");
+            if (i % 2 == 0) {
+                builder.append("products ");
+            }
+            builder.append("w").append((char) ('a' + i % 26)).append((char) ('a' + i / 26 % 26)).append(' ');
+        }
+        String text = builder.toString();
+
+        FrequentWordSearcher searcher = FrequentWordSearcher.builder().language("english")
+                .spaceSavingCounters(32).countMinSketch(256, 4).build();
+        TopKResult exact = searcher.findTopK(text, 2, CountingMode.EXACT);
+        assertTrue("Exact mode counts exactly", exact.isExact());
+        assertEquals("Exact mode should match the default search", searcher.findTopK(text, 2), exact);
+
+        for (CountingMode mode : new CountingMode[] {CountingMode.SPACE_SAVING, CountingMode.COUNT_MIN_SKETCH}) {
+            TopKResult approximate = searcher.findTopK(text, 2, mode);
+            assertFalse(mode + " estimates the counts", approximate.isExact());
+            assertEquals("Incorrect words in " + mode, Arrays.asList("evernot", "product"), approximate.words());
+            assertEquals("Stop words should not be counted", exact.totalTokenCount(), approximate.totalTokenCount());
+            for (int rank = 0; rank < approximate.size(); rank++) {
+                assertTrue("True count out of the error bounds in " + mode, approximate.count(rank) >= exact.count(rank)
+                        && approximate.count(rank) - approximate.error(rank) <= exact.count(rank));
+            }
+
+            assertEquals("Reader should count like the text in " + mode, approximate,
+                    searcher.findTopK(new StringReader(text), 2, mode));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountMinSketchTooLarge() {
+        FrequentWordSearcher.builder().countMinSketch(1 << 30, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCountingMode() {
+        FrequentWordSearcher.builder().build().findTopK("evernote", 1, (CountingMode) null);
+    }
+
+    @Test
+    public void testBatchMatchesSearchOfEachDocument() {
+        Random random = new Random(42);
+        List<String> documents = new ArrayList<String>();
+        StringBuilder corpus = new StringBuilder();
+        for (int document = 0; document < 300; document++) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                int word = random.nextInt(1 + random.nextInt(200));
+                builder.append(word % 7 == 0 ? "the" : "w" + (char) ('a' + word % 26) + (char) ('a' + word / 26))
+                        .append(word % 3 == 0 ? "s " : " ");
+            }
+
+            documents.add(builder.toString());
+            corpus.append(builder).append(' ');
+        }
+
+        for (String language : new String[] {null, "english"}) {
+            for (TieBreak tieBreak : TieBreak.values()) {
+                FrequentWordSearcher searcher = FrequentWordSearcher.builder().language(language).tieBreak(tieBreak).build();
+                BatchTopKResult batch = searcher.findTopK(documents, 5);
+
+                assertEquals("Incorrect number of documents", documents.size(), batch.size());
+                for (int index = 0; index < documents.size(); index++) {
+                    TopKResult expected = documents.get(index).isEmpty()
+                            ? TopKResult.empty(0, 0) : searcher.findTopK(documents.get(index), 5);
+                    assertEquals("Incorrect result of document " + index, expected, batch.document(index));
+                }
+                assertEquals("Incorrect corpus result", searcher.findTopK(corpus.toString(), 5), batch.corpus());
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        BatchTopKResult batch = FrequentWordSearcher.builder().build().findTopK(new ArrayList<String>(), 3);
+        assertEquals("No documents", 0, batch.size());
+        assertEquals("No words were counted", 0, batch.corpus().totalTokenCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchWithNullDocument() {
+        FrequentWordSearcher.builder().build().findTopK(Arrays.asList("evernote", null), 3);
+    }
+
+    @Test
+    public void testOffHeapVocabularyMatchesHeap() throws IOException {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            int word = random.nextInt(1 + random.nextInt(3000));
+            builder.append(word % 11 == 0 ? "the" : "w" + (char) ('a' + word % 26) + (char) ('a' + word / 26 % 26) + (char) ('a' + word / 676))
+                    .append(word % 3 == 0 ? "s " : " ");
+        }
+        String text = builder.toString();
+
+        for (String language : new String[] {null, "english"}) {
+            for (TieBreak tieBreak : TieBreak.values()) {
+                FrequentWordSearcher onHeap = FrequentWordSearcher.builder().language(language).tieBreak(tieBreak).build();
+                FrequentWordSearcher offHeap = FrequentWordSearcher.builder().language(language).tieBreak(tieBreak)
+                        .offHeapVocabulary(true).build();
+
+                for (int k : new int[] {1, 10, 1000}) {
+                    TopKResult expected = onHeap.findTopK(text, k);
+                    assertEquals("Off heap result should match the heap", expected, offHeap.findTopK(text, k));
+                    assertEquals("Off heap result should match the heap", expected, offHeap.findTopK(new StringReader(text), k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSpillToDiskMatchesMemory() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        Path path = Paths.get(pathToDataFile);
+        for (String language : new String[] {null, "english"}) {
+            for (TieBreak tieBreak : TieBreak.values()) {
+                FrequentWordSearcher inMemory = FrequentWordSearcher.builder().language(language).tieBreak(tieBreak).build();
+                FrequentWordSearcher spilling = FrequentWordSearcher.builder().language(language).tieBreak(tieBreak)
+                        .spillToDisk(2048, directory).build();
+
+                for (int k : new int[] {1, 10, 1000}) {
+                    assertEquals("Spilled result should match the result in memory",
+                            inMemory.findTopK(textBlob, k), spilling.findTopK(textBlob, k));
+                    assertEquals("Spilled result should match the result in memory",
+                            inMemory.findTopK(new StringReader(textBlob), k), spilling.findTopK(new StringReader(textBlob), k));
+                    assertEquals("Spilled result should match the result in memory",
+                            inMemory.findTopK(path, k), spilling.findTopK(path, k));
+                }
+            }
+        }
+
+        assertEquals("Spilled words should be deleted", 0, directory.toFile().list().length);
+        Files.delete(directory);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpillToDiskWithoutBudget() {
+        FrequentWordSearcher.builder().spillToDisk(0, null);
+    }
+
+    @Test
+    public void testWordFrequencyForSkewedText() {
+        StringBuilder builder = new StringBuilder("best anish anish ");
+        for (int i = 0; i < 1000; i++) {
+            builder.append("evernote ");
+        }
+
+        List<String> mostFrequentWords = FrequentWordSearcher.getMostFrequentWords(builder.toString(), 2);
+        assertEquals("Cannot find the most frequent word", "evernote", mostFrequentWords.get(0));
+        assertEquals("Cannot find the most frequent word", "anish", mostFrequentWords.get(1));
     }
 
     @After
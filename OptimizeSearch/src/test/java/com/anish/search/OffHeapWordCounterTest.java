@@ -0,0 +1,91 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OffHeapWordCounterTest {
+
+    @Test
+    public void testMatchesWordCounter() {
+        Random random = new Random(42);
+        OffHeapWordCounter offHeap = new OffHeapWordCounter();
+        WordCounter onHeap = new WordCounter();
+
+        for (int i = 0; i < 200000; i++) {
+            // Enough distinct words to grow the table and fill several arena buffers
+            String word = TestWords.word(TestWords.zipf(random, 50000));
+            char[] buffer = (" " + word + " ").toCharArray();
+            offHeap.add(offHeap.intern(buffer, 1, word.length()), 1);
+            onHeap.increment(buffer, 1, word.length());
+        }
+
+        assertEquals("Incorrect number of words", onHeap.size(), offHeap.size());
+        assertEquals("Incorrect total", onHeap.total(), offHeap.total());
+        assertEquals("Incorrect number of distinct words", onHeap.distinct(), offHeap.distinct());
+        assertEquals("Incorrect largest count", onHeap.maxCount(), offHeap.maxCount());
+        for (int id = 0; id < onHeap.size(); id++) {
+            assertEquals("Ids should follow the first occurrence", onHeap.word(id), offHeap.word(id));
+            assertEquals("Incorrect count of " + onHeap.word(id), onHeap.count(id), offHeap.count(id));
+        }
+    }
+
+    @Test
+    public void testInternAndAdd() {
+        OffHeapWordCounter counter = new OffHeapWordCounter();
+        int evernote = counter.intern("evernote");
+        assertEquals("Interned word has no count", 0, counter.count(evernote));
+        assertEquals("Interned word is not counted", 0, counter.distinct());
+        assertEquals("Same word should have the same id", evernote, counter.intern("evernote"));
+
+        assertEquals("Incorrect count", 3, counter.add(evernote, 3));
+        assertEquals("Incorrect count", 0, counter.add(evernote, -3));
+        assertEquals("Word with a count of 0 is not distinct", 0, counter.distinct());
+        assertEquals("Incorrect total", 0, counter.total());
+    }
+
+    @Test
+    public void testLongWord() {
+        OffHeapWordCounter counter = new OffHeapWordCounter();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+
+        String word = builder.toString();
+        int id = counter.intern(word);
+        assertEquals("Word longer than an arena buffer should be kept whole", word, counter.word(id));
+        assertEquals("Incorrect id", id, counter.intern(word));
+    }
+
+    @Test
+    public void testWordsBeyondAscii() {
+        OffHeapWordCounter counter = new OffHeapWordCounter();
+        String[] words = {"caf\u00e9", "cafe", "caf\u00c3\u00a9", "\u65e5\u672c", "na\u00efve"};
+        int[] ids = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            ids[i] = counter.intern(words[i]);
+        }
+
+        assertEquals("Every word should have its own id", words.length, counter.size());
+        for (int i = 0; i < words.length; i++) {
+            assertEquals("Word should be kept whole", words[i], counter.word(ids[i]));
+            assertEquals("Same word should have the same id", ids[i], counter.intern(words[i]));
+            char[] buffer = (" " + words[i] + " ").toCharArray();
+            assertEquals("Word in a buffer should have the same id", ids[i], counter.intern(buffer, 1, words[i].length()));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testAddPastIntegerMaxValue() {
+        OffHeapWordCounter counter = new OffHeapWordCounter();
+        int evernote = counter.intern("evernote");
+        counter.add(evernote, Integer.MAX_VALUE);
+        counter.add(evernote, 1);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SlidingWindowAccumulatorTest {
+
+    @Test
+    public void testSubWindowsExpire() {
+        SlidingWindowAccumulator window = new SlidingWindowAccumulator(FrequentWordSearcher.builder().build(),
+                10, TimeUnit.SECONDS, 10);
+        window.add("evernote evernote the", 0);
+        window.add("anish", 5000);
+
+        TopKResult result = window.topK(2, 9999);
+        assertEquals("Incorrect words", Arrays.asList("evernote", "anish"), result.words());
+        assertArrayEquals("Incorrect counts", new long[] {2, 1}, result.counts());
+
+        result = window.topK(2, 10000);
+        assertEquals("The first sub-window should have expired", Arrays.asList("anish"), result.words());
+        assertEquals("Incorrect total", 1, result.totalTokenCount());
+
+        assertEquals("Every sub-window should have expired", 0, window.topK(2, 60000).size());
+    }
+
+    @Test
+    public void testDocumentsOlderThanTheWindowAreDropped() {
+        SlidingWindowAccumulator window = new SlidingWindowAccumulator(FrequentWordSearcher.builder().build(),
+                1, TimeUnit.MINUTES, 6);
+        window.add("evernote", 120000);
+        window.add("anish anish", 30000);
+        window.add("best best best", 119999);
+
+        TopKResult result = window.topK(5, 120000);
+        assertEquals("Incorrect words", Arrays.asList("best", "evernote"), result.words());
+    }
+
+    @Test
+    public void testMatchesSearchOfTheWindow() {
+        FrequentWordSearcher searcher = FrequentWordSearcher.builder().tieBreak(TieBreak.LEXICOGRAPHIC).build();
+        SlidingWindowAccumulator window = new SlidingWindowAccumulator(searcher, 1, TimeUnit.SECONDS, 10);
+
+        Random random = new Random(42);
+        List<String> documents = new ArrayList<String>();
+        List<Long> times = new ArrayList<Long>();
+        long time = 0;
+        for (int document = 0; document < 80000; document++) {
+            // A word seen only once, so words keep leaving the window and the counts get rebuilt
+            StringBuilder builder = new StringBuilder("unique").append(TestWords.word(document));
+            for (int i = 0; i < 5; i++) {
+                builder.append(' ').append(TestWords.word(random.nextInt(1 + random.nextInt(200))));
+            }
+
+            time += random.nextInt(3);
+            window.add(builder.toString(), time);
+            documents.add(builder.toString());
+            times.add(time);
+
+            if (document % 20000 == 19999) {
+                StringBuilder inWindow = new StringBuilder();
+                for (int i = 0; i < documents.size(); i++) {
+                    if (times.get(i) / 100 > time / 100 - 10) {
+                        inWindow.append(documents.get(i)).append(' ');
+                    }
+                }
+
+                for (int k : new int[] {1, 10, 100}) {
+                    assertEquals("Incorrect result for k = " + k,
+                            searcher.findTopK(inWindow.toString(), k), window.topK(k, time));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTopKOfAllWords() {
+        FrequentWordSearcher searcher = FrequentWordSearcher.builder().build();
+        SlidingWindowAccumulator window = new SlidingWindowAccumulator(searcher, 10, TimeUnit.SECONDS, 10);
+        window.add("evernote anish evernote", 0);
+        window.add("best anish evernote", 5000);
+
+        assertEquals("Incorrect result for k = Integer.MAX_VALUE",
+                searcher.findTopK("evernote anish evernote best anish evernote", Integer.MAX_VALUE),
+                window.topK(Integer.MAX_VALUE, 5000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowShorterThanSubWindows() {
+        new SlidingWindowAccumulator(FrequentWordSearcher.builder().build(), 5, TimeUnit.MILLISECONDS, 10);
+    }
+}
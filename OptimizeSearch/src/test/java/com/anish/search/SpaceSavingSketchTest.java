@@ -0,0 +1,124 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void testExactUntilFull() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        for (String word : "beta alpha beta gamma beta alpha".split(" ")) {
+            sketch.offer(word.toCharArray(), 0, word.length());
+        }
+
+        TopKResult result = sketch.topK(3, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Incorrect words", Arrays.asList("beta", "alpha", "gamma"), result.words());
+        assertArrayEquals("Incorrect counts", new long[] {3, 2, 1}, result.counts());
+        assertEquals("No word was evicted", 0, result.errorBound());
+        assertEquals("No word was evicted", 0, result.error(0));
+        assertFalse("Counted in a sketch", result.isExact());
+        assertEquals("Incorrect total", 6, result.totalTokenCount());
+    }
+
+    @Test
+    public void testErrorBounds() {
+        Random random = new Random(42);
+        int capacity = 64;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        WordCounter exact = new WordCounter();
+
+        for (int i = 0; i < 100000; i++) {
+            // Zipf like, a few words are very frequent and most are rare
+            String word = TestWords.word(TestWords.zipf(random, 2000));
+            exact.add(word, 1);
+            if (i % 2 == 0) {
+                sketch.offer(word);
+            } else {
+                char[] buffer = (" " + word + " ").toCharArray();
+                sketch.offer(buffer, 1, word.length());
+            }
+        }
+
+        assertEquals("Incorrect total", 100000, sketch.total());
+        assertEquals("Every counter should be used", capacity, sketch.size());
+        assertTrue("Error bound above N / m", sketch.errorBound() <= 100000 / capacity);
+
+        TopKResult result = sketch.topK(capacity, TieBreak.FIRST_OCCURRENCE);
+        for (int rank = 0; rank < result.size(); rank++) {
+            long trueCount = exact.count(result.word(rank));
+            assertTrue("Count below the true count", result.count(rank) >= trueCount);
+            assertTrue("Count above the true count by more than its error",
+                    result.count(rank) - result.error(rank) <= trueCount);
+            assertTrue("Error above the bound", result.error(rank) <= result.errorBound());
+        }
+
+        // Every word seen more often than the bound has a counter
+        for (int id = 0; id < exact.size(); id++) {
+            if (exact.count(id) > result.errorBound()) {
+                assertTrue("Frequent word " + exact.word(id) + " lost", result.words().contains(exact.word(id)));
+            }
+        }
+    }
+
+    @Test
+    public void testHeavyHittersFound() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(16);
+        for (int i = 0; i < 10000; i++) {
+            sketch.offer(TestWords.word(i));
+            if (i % 3 == 0) {
+                sketch.offer("evernote");
+            }
+            if (i % 5 == 0) {
+                sketch.offer("anish");
+            }
+        }
+
+        TopKResult result = sketch.topK(2, TieBreak.FIRST_OCCURRENCE);
+        assertEquals("Cannot find the heavy hitters", Arrays.asList("evernote", "anish"), result.words());
+        assertTrue("Error of a word counted from the start", result.error(0) <= result.errorBound());
+    }
+
+    @Test
+    public void testLexicographicTieBreak() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        for (String word : "zeta alpha beta alpha zeta gamma".split(" ")) {
+            sketch.offer(word);
+        }
+
+        assertEquals("Incorrect lexicographic order", Arrays.asList("alpha", "zeta", "beta"),
+                sketch.topK(3, TieBreak.LEXICOGRAPHIC).words());
+    }
+
+    @Test
+    public void testNoWords() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        assertEquals("No words were counted", 0, sketch.topK(3, TieBreak.FIRST_OCCURRENCE).size());
+
+        sketch.offer("evernote");
+        assertEquals("No words were asked for", 0, sketch.topK(0, TieBreak.FIRST_OCCURRENCE).size());
+    }
+
+    @Test
+    public void testTopKOfAllWords() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        for (String word : "evernote anish evernote".split(" ")) {
+            sketch.offer(word);
+        }
+
+        assertEquals("Incorrect words", Arrays.asList("evernote", "anish"),
+                sketch.topK(Integer.MAX_VALUE, TieBreak.FIRST_OCCURRENCE).words());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCounters() {
+        new SpaceSavingSketch(0);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpillingWordCounterTest {
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("spill");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testSpilledMatchesMemory() throws IOException {
+        Random random = new Random(42);
+        String[] text = new String[50000];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = TestWords.word(TestWords.zipf(random, 5000));
+        }
+
+        WordCounter expected = new WordCounter();
+        for (String word : text) {
+            expected.add(word, 1);
+        }
+
+        for (TieBreak tieBreak : TieBreak.values()) {
+            // A budget of a few words writes more runs than are merged in a single pass
+            try (SpillingWordCounter counter = new SpillingWordCounter(20 * SpillingWordCounter.BYTES_PER_WORD, directory)) {
+                for (String word : text) {
+                    char[] buffer = (" " + word).toCharArray();
+                    counter.increment(buffer, 1, word.length());
+                }
+
+                assertTrue("Counter should have spilled more than one merge", counter.runs() > 64);
+                assertEquals("Incorrect total", text.length, counter.total());
+                for (int k : new int[] {0, 1, 10, 100000}) {
+                    assertEquals("Spilled result should match the result in memory",
+                            FrequentWordSearcher.selectMostFrequentWords(expected, expected.maxCount(), k, tieBreak),
+                            counter.topK(k, tieBreak));
+                }
+            }
+
+            assertEquals("Runs should be deleted once closed", 0, directory.toFile().list().length);
+        }
+    }
+
+    @Test
+    public void testWithinBudget() throws IOException {
+        try (SpillingWordCounter counter = new SpillingWordCounter(1 << 20, directory)) {
+            counter.increment("evernote");
+            counter.increment("anish");
+            counter.increment("evernote");
+
+            TopKResult result = counter.topK(2, TieBreak.FIRST_OCCURRENCE);
+            assertEquals("Counter within its budget should not spill", 0, counter.runs());
+            assertEquals("Incorrect most frequent word", "evernote", result.word(0));
+            assertEquals("Incorrect count", 2, result.count(0));
+            assertEquals("Incorrect word", "anish", result.word(1));
+        }
+
+        File[] files = directory.toFile().listFiles();
+        assertEquals("Nothing should be written", 0, files.length);
+    }
+}
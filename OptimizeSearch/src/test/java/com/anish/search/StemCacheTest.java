@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.tartarus.snowball.SnowballStemmer;
+import org.tartarus.snowball.ext.englishStemmer;
+
+public class StemCacheTest {
+
+    @Test
+    public void testRepeatedWordIsStemmedOnce() {
+        StemCache cache = new StemCache(64);
+        SnowballStemmer stemmer = new englishStemmer();
+
+        String stem = cache.stem("products", stemmer);
+        assertEquals("Cached stem differs from the stemmer", stem, cache.stem("products", stemmer));
+        assertEquals("Cached stem differs from the stemmer", stem, cache.stem("products", new englishStemmer()));
+
+        assertEquals("Incorrect miss count", 1, cache.missCount());
+        assertEquals("Incorrect hit count", 2, cache.hitCount());
+        assertEquals("Incorrect cache size", 1, cache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        StemCache cache = new StemCache(256);
+        SnowballStemmer stemmer = new englishStemmer();
+        for (int i = 0; i < 10000; i++) {
+            cache.stem("word" + i, stemmer);
+        }
+
+        assertTrue("Cache grew past its size", cache.size() <= cache.maxSize());
+        assertEquals("Incorrect miss count", 10000, cache.missCount());
+    }
+
+    @Test
+    public void testCacheHoldsExactlyItsSize() {
+        SnowballStemmer stemmer = new englishStemmer();
+        for (int maxSize : new int[] {1, 2, 3, 7, 15, 16, 17, 100, 257}) {
+            StemCache cache = new StemCache(maxSize);
+            for (int i = 0; i < 10000; i++) {
+                cache.stem("word" + i, stemmer);
+            }
+
+            assertEquals("Full cache should hold its size", maxSize, cache.size());
+        }
+    }
+
+    @Test
+    public void testSearcherCountsHitsAndMisses() {
+        FrequentWordSearcher searcher = FrequentWordSearcher.builder().language("english").build();
+        searcher.findMostFrequentWords("evernote products evernote products evernote", 2);
+
+        // A search stems every distinct word once, the words seen again use the id of their stem
+        StemCache cache = searcher.getStemCache();
+        assertEquals("Incorrect miss count", 2, cache.missCount());
+        assertEquals("Incorrect hit count", 0, cache.hitCount());
+
+        searcher.findMostFrequentWords("products evernote", 2);
+        assertEquals("Incorrect miss count", 2, cache.missCount());
+        assertEquals("Incorrect hit count", 2, cache.hitCount());
+        assertNull("Stems should not be cached",
+                FrequentWordSearcher.builder().language("english").stemCacheSize(0).build().getStemCache());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new StemCache(0);
+    }
+}
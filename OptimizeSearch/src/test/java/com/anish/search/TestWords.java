@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import java.util.Random;
+
+/**
+ * The class {@code TestWords} makes up the words of the texts the tests count
+ */
+final class TestWords {
+
+    private TestWords() {}
+
+    /**
+     * @param number, the number of the word
+     * @return a distinct word for every number, made of letters only since the tokenizer drops digits
+     */
+    static String word(int number) {
+        StringBuilder builder = new StringBuilder("w");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+
+        return builder.toString();
+    }
+
+    /**
+     * @param random, the source of randomness
+     * @param words,  the number of distinct numbers
+     * @return a number between 0 and words - 1, skewed towards the small ones like the words of a
+     *         natural text
+     */
+    static int zipf(Random random, int words) {
+        return (int) Math.pow(words, random.nextDouble()) - 1;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class TopKResultTest {
+    private static final FrequentWordSearcher searcher = FrequentWordSearcher.builder().build();
+
+    @Test
+    public void testWordsComeWithTheirCounts() {
+        TopKResult result = searcher.findTopK("evernote anish evernote the best anish evernote", 2);
+
+        assertEquals("Incorrect number of words", 2, result.size());
+        assertEquals("Incorrect words", Arrays.asList("evernote", "anish"), result.words());
+        assertEquals("Incorrect count", 3, result.count(0));
+        assertEquals("Incorrect count", 2, result.count(1));
+        assertArrayEquals("Incorrect counts", new long[] {3, 2}, result.counts());
+        assertEquals("Stop words should not be counted", 6, result.totalTokenCount());
+        assertEquals("Incorrect number of distinct words", 3, result.distinctWordCount());
+    }
+
+    @Test
+    public void testTotalsWithoutWords() {
+        TopKResult result = searcher.findTopK("evernote anish evernote", 0);
+
+        assertEquals("No words were asked for", 0, result.size());
+        assertEquals("Incorrect total", 3, result.totalTokenCount());
+        assertEquals("Incorrect number of distinct words", 2, result.distinctWordCount());
+    }
+
+    @Test
+    public void testStemmedCountsAreAddedUp() {
+        for (StemmingStrategy strategy : StemmingStrategy.values()) {
+            TopKResult result = FrequentWordSearcher.builder().language("english").stemmingStrategy(strategy)
+                    .build().findTopK("products product evernote products", 1);
+
+            assertEquals("Incorrect count for " + strategy, 3, result.count(0));
+            assertEquals("Incorrect total for " + strategy, 4, result.totalTokenCount());
+            assertEquals("Incorrect number of distinct words for " + strategy, 2, result.distinctWordCount());
+        }
+    }
+
+    @Test
+    public void testParallelResultEqualsSequentialResult() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            builder.append(TestWords.word(i % 97)).append(' ').append("evernote ");
+        }
+
+        TopKResult sequential = searcher.findTopK(builder.toString(), 20);
+        TopKResult parallel = searcher.findTopK(builder.toString(), 20, ForkJoinPool.commonPool());
+        assertEquals("Parallel and sequential results differ", sequential, parallel);
+        assertEquals("Equal results should have equal hashes", sequential.hashCode(), parallel.hashCode());
+    }
+
+    @Test
+    public void testErrorsOfApproximateResult() {
+        TopKResult exact = searcher.findTopK("evernote anish evernote", 2);
+        TopKResult approximate = searcher.findTopK("evernote anish evernote", 2, CountingMode.SPACE_SAVING);
+
+        assertTrue("Exact result", exact.isExact());
+        assertEquals("Exact counts have no error", 0, exact.error(0));
+        assertFalse("Approximate result", approximate.isExact());
+        assertEquals("Same words", exact.words(), approximate.words());
+        assertFalse("Approximate result should not equal the exact one", exact.equals(approximate));
+        assertTrue("Approximate result should report its error bound",
+                approximate.toString().endsWith("counts at most 0 too high"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWordsAreUnmodifiable() {
+        searcher.findTopK("evernote anish", 2).words().add("best");
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class WordCounterTest {
+
+    @Test
+    public void testIncrementFromBuffer() {
+        WordCounter counter = new WordCounter();
+        char[] buffer = "xxevernotexx".toCharArray();
+
+        assertEquals("Incorrect count", 1, counter.increment(buffer, 2, 8));
+        assertEquals("Incorrect count", 2, counter.increment(buffer, 2, 8));
+        assertEquals("Incorrect number of words", 1, counter.size());
+        assertEquals("Incorrect word", "evernote", counter.word(0));
+    }
+
+    @Test
+    public void testBufferAndStringShareTheSameWord() {
+        WordCounter counter = new WordCounter();
+        counter.add("anish", 3);
+        counter.increment("anish".toCharArray(), 0, 5);
+
+        assertEquals("Incorrect number of words", 1, counter.size());
+        assertEquals("Incorrect count", 4, counter.count("anish"));
+        assertEquals("Incorrect count for unknown word", 0, counter.count("best"));
+    }
+
+    @Test
+    public void testIdsFollowFirstOccurrenceWhileGrowing() {
+        WordCounter counter = new WordCounter(1);
+        for (int round = 1; round <= 3; round++) {
+            for (int i = 0; i < 5000; i++) {
+                char[] word = ("w" + i).toCharArray();
+                assertEquals("Incorrect count", round, counter.increment(word, 0, word.length));
+            }
+        }
+
+        assertEquals("Incorrect number of words", 5000, counter.size());
+        for (int id = 0; id < counter.size(); id++) {
+            assertEquals("Incorrect word for id", "w" + id, counter.word(id));
+            assertEquals("Incorrect count", 3, counter.count(id));
+        }
+    }
+
+    @Test
+    public void testResetAndMaxCount() {
+        WordCounter counter = new WordCounter();
+        counter.add("the", 10);
+        counter.add("evernote", 4);
+
+        assertEquals("Incorrect max count", 10, counter.maxCount());
+        counter.reset("the");
+        counter.reset("unknown");
+        assertEquals("Incorrect max count", 4, counter.maxCount());
+        assertEquals("Reset word should keep its id", 2, counter.size());
+    }
+
+    @Test
+    public void testTotalAndDistinct() {
+        WordCounter counter = new WordCounter();
+        counter.increment("anish".toCharArray(), 0, 5);
+        counter.increment("anish".toCharArray(), 0, 5);
+        counter.add("the", 4);
+        counter.add("best", 1);
+        assertEquals("Incorrect total", 7, counter.total());
+        assertEquals("Incorrect number of distinct words", 3, counter.distinct());
+
+        counter.reset("the");
+        assertEquals("Incorrect total", 3, counter.total());
+        assertEquals("Incorrect number of distinct words", 2, counter.distinct());
+        assertEquals("Reset word should keep its id", 3, counter.size());
+
+        counter.add("the", 1);
+        assertEquals("Incorrect number of distinct words", 3, counter.distinct());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testIncrementPastIntegerMaxValue() {
+        WordCounter counter = new WordCounter();
+        counter.add("evernote", Integer.MAX_VALUE);
+        counter.increment("evernote".toCharArray(), 0, 8);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testAddAllPastIntegerMaxValue() {
+        WordCounter partition = new WordCounter();
+        partition.add("evernote", Integer.MAX_VALUE);
+        WordCounter merged = new WordCounter();
+        merged.add("evernote", 1);
+        merged.addAll(partition);
+    }
+}
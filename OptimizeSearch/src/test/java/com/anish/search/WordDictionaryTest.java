@@ -0,0 +1,48 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.tartarus.snowball.ext.englishStemmer;
+
+public class WordDictionaryTest {
+
+    @Test
+    public void testWordsWithoutStemmer() {
+        WordCounter terms = new WordCounter();
+        WordDictionary dictionary = new WordDictionary(terms, Arrays.asList("the", "a"), null, null);
+
+        int evernote = idOf(dictionary, "evernote");
+        assertTrue("Word should have an id", evernote >= 0);
+        assertEquals("Same word should have the same id", evernote, idOf(dictionary, "evernote"));
+        assertEquals("Incorrect term", "evernote", terms.word(evernote));
+        assertTrue("Stop word should have no id", idOf(dictionary, "the") < 0);
+        assertEquals("Next word should get the next id", evernote + 1, idOf(dictionary, "anish"));
+    }
+
+    @Test
+    public void testWordsSharingAStem() {
+        WordCounter terms = new WordCounter();
+        WordDictionary dictionary = new WordDictionary(terms, Arrays.asList("the"), new englishStemmer(), null);
+
+        int product = idOf(dictionary, "products");
+        assertEquals("Words sharing a stem should have the same id", product, idOf(dictionary, "product"));
+        assertEquals("Incorrect stem", "product", terms.word(product));
+        assertTrue("Stop word should have no id", idOf(dictionary, "the") < 0);
+        assertEquals("Stop words should not be terms", 1, terms.size());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Surface words should keep their stem", product, idOf(dictionary, "products"));
+        }
+    }
+
+    private static int idOf(WordDictionary dictionary, String word) {
+        char[] buffer = (" " + word + " ").toCharArray();
+        return dictionary.idOf(buffer, 1, word.length());
+    }
+}
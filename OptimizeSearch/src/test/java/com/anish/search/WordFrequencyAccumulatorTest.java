@@ -0,0 +1,90 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordFrequencyAccumulatorTest {
+
+    @Test
+    public void testTopKAfterEveryDocument() throws IOException {
+        WordFrequencyAccumulator accumulator = new WordFrequencyAccumulator(FrequentWordSearcher.builder().build());
+        accumulator.add("evernote anish the best");
+        assertEquals("Incorrect words", Arrays.asList("evernote", "anish"), accumulator.topK(2).words());
+
+        accumulator.add(new StringReader("anish product product product"));
+        TopKResult result = accumulator.topK(2);
+        assertEquals("Incorrect words", Arrays.asList("product", "anish"), result.words());
+        assertArrayEquals("Incorrect counts", new long[] {3, 2}, result.counts());
+        assertEquals("Incorrect total", 7, accumulator.totalTokenCount());
+        assertEquals("Incorrect number of distinct words", 4, accumulator.distinctWordCount());
+    }
+
+    @Test
+    public void testEmptyAccumulator() {
+        WordFrequencyAccumulator accumulator = new WordFrequencyAccumulator(FrequentWordSearcher.builder().build());
+        accumulator.add("");
+        accumulator.add("the a an");
+
+        assertEquals("No words were counted", 0, accumulator.topK().size());
+        assertEquals("No words were counted", 0, accumulator.totalTokenCount());
+    }
+
+    @Test
+    public void testMatchesSearchOfAllDocuments() {
+        Random random = new Random(42);
+        for (TieBreak tieBreak : TieBreak.values()) {
+            FrequentWordSearcher searcher = FrequentWordSearcher.builder().language("english").tieBreak(tieBreak).build();
+            WordFrequencyAccumulator accumulator = new WordFrequencyAccumulator(searcher);
+            StringBuilder allDocuments = new StringBuilder();
+
+            for (int document = 0; document < 200; document++) {
+                StringBuilder builder = new StringBuilder();
+                for (int i = 0; i < 50; i++) {
+                    // Skewed towards the small numbers, so the counts spread over many buckets
+                    int word = random.nextInt(1 + random.nextInt(300));
+                    builder.append(TestWords.word(word)).append(word % 3 == 0 ? "s " : " ");
+                }
+
+                accumulator.add(builder.toString());
+                allDocuments.append(builder);
+                if (document % 50 == 49) {
+                    for (int k : new int[] {1, 10, 100, 1000}) {
+                        assertEquals("Incorrect result for k = " + k + " and " + tieBreak,
+                                searcher.findTopK(allDocuments.toString(), k), accumulator.topK(k));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTopKOfAllWords() {
+        FrequentWordSearcher searcher = FrequentWordSearcher.builder().build();
+        WordFrequencyAccumulator accumulator = new WordFrequencyAccumulator(searcher);
+        accumulator.add("evernote anish evernote");
+        accumulator.add("best anish evernote");
+
+        assertEquals("Incorrect result for k = Integer.MAX_VALUE",
+                searcher.findTopK("evernote anish evernote best anish evernote", Integer.MAX_VALUE),
+                accumulator.topK(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullSearcher() {
+        new WordFrequencyAccumulator(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullText() {
+        new WordFrequencyAccumulator(FrequentWordSearcher.builder().build()).add((String) null);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordSortTest {
+
+    @Test
+    public void testSortMovesTheIdsAlong() {
+        Random random = new Random(42);
+        for (int length : new int[] {0, 1, 2, 16, 17, 1000, 20000}) {
+            String[] words = new String[length];
+            int[] ids = new int[length];
+            for (int i = 0; i < length; i++) {
+                // Distinct words in random order
+                words[i] = TestWords.word(i * 7919 + random.nextInt(7919));
+                ids[i] = i;
+            }
+            String[] unsorted = words.clone();
+            String[] expected = words.clone();
+            Arrays.sort(expected);
+
+            WordSort.sort(words, ids);
+            assertArrayEquals("Incorrect order for " + length + " words", expected, words);
+            for (int i = 0; i < length; i++) {
+                assertEquals("Id moved away from its word", unsorted[ids[i]], words[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSortedInput() {
+        String[] words = new String[1000];
+        int[] ids = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = String.format("w%04d", i);
+            ids[i] = i;
+        }
+
+        WordSort.sort(words, ids);
+        for (int i = 0; i < words.length; i++) {
+            assertEquals("Sorted words should stay in place", i, ids[i]);
+        }
+    }
+
+    @Test
+    public void testAlphabeticalIds() {
+        WordCounter counter = new WordCounter();
+        for (String word : "zeta alpha beta gamma".split(" ")) {
+            counter.add(word, 1);
+        }
+
+        assertArrayEquals("Incorrect alphabetical ids", new int[] {1, 2, 3, 0}, WordSort.alphabeticalIds(counter));
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ *
+ */
+package com.anish.search;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WordTokenizerTest {
+
+    private static List<String> tokenize(String text) {
+        final List<String> words = new ArrayList<String>();
+        new WordTokenizer(new TokenSink() {
+            @Override
+            public void onToken(char[] buffer, int length) {
+                words.add(new String(buffer, 0, length));
+            }
+        }).tokenize(text);
+
+        return words;
+    }
+
+    @Test
+    public void testTokenizeFoldsCaseAndDropsSpecialCharacters() {
+        List<String> words = tokenize("Evernote's HQ, in 2007:  Redwood-City!");
+        assertEquals("Incorrect words", "[evernotes, hq, in, redwoodcity]", words.toString());
+    }
+
+    @Test
+    public void testTokenizeSplitsOnAnyWhitespace() {
+        List<String> words = tokenize("\tone\ntwo\r\nthree  four ");
+        assertEquals("Incorrect words", "[one, two, three, four]", words.toString());
+    }
+
+    @Test
+    public void testTokenizeWithoutWords() {
+        assertTrue("There should not be any words", tokenize(" 2007, ... ").isEmpty());
+    }
+
+    @Test
+    public void testWordSpanningChunks() {
+        final List<String> words = new ArrayList<String>();
+        WordTokenizer tokenizer = new WordTokenizer(new TokenSink() {
+            @Override
+            public void onToken(char[] buffer, int length) {
+                words.add(new String(buffer, 0, length));
+            }
+        });
+
+        char[] text = "a verylongwordthatspanschunks b".toCharArray();
+        for (int i = 0; i < text.length; i += 3) {
+            tokenizer.feed(text, i, Math.min(3, text.length - i));
+        }
+        tokenizer.finish();
+
+        assertEquals("Incorrect words", "[a, verylongwordthatspanschunks, b]", words.toString());
+    }
+}